@@ -20,6 +20,7 @@ class BuildingHireHandler : IBuildingHireHandler {
     private var professions: List<ProfessionHireInfo> = emptyList()
     private var hireQueues = mutableMapOf<String, Queue<HireRequest>>()
     private var hireProgresses = mutableMapOf<String, HireProgressInfo>()
+    private var changed = false
 
     fun initialized(): Boolean = professionManager != null && buildingsManager != null && resourceManger != null
 
@@ -51,6 +52,7 @@ class BuildingHireHandler : IBuildingHireHandler {
             if (queue.isNotEmpty()) {
                 val request = queue.peek()
                 request.progress++
+                changed = true
                 if (request.progress >= 100) {
                     queue.poll()
                     professionManager?.increaseAmount(professionId)
@@ -68,6 +70,23 @@ class BuildingHireHandler : IBuildingHireHandler {
         resourceManger?.removeItems(cost)
 
         hireQueues.computeIfAbsent(professionId) { LinkedList() }.add(HireRequest())
+        changed = true
+    }
+
+    /**
+     * Recomputes the hire progresses, they can change without the handler knowing (e.g. when resources are spent).
+     */
+    fun refreshProgresses() {
+        professions.forEach {
+            val previous = hireProgresses[it.professionId]
+            if (getHireProgress(it.professionId) != previous) changed = true
+        }
+    }
+
+    fun consumeChanges(): Boolean {
+        val result = changed
+        changed = false
+        return result
     }
 
     override fun getProfessions(): List<ProfessionHireInfo> = professions
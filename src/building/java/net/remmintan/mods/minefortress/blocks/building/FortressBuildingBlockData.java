@@ -1,5 +1,7 @@
 package net.remmintan.mods.minefortress.blocks.building;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.fabricmc.fabric.api.util.NbtType;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
@@ -21,7 +23,12 @@ import net.minecraft.world.event.GameEvent;
 import org.apache.logging.log4j.LogManager;
 
 import java.util.*;
+import java.util.function.Predicate;
 
+/**
+ * The reference state of the building is stored as the sorted packed positions and the indices of their block states
+ * in the palette. The actual state is a bit per position, set when the block is destroyed.
+ */
 class FortressBuildingBlockData {
 
     private static final List<Block> IGNORED_BLOCKS = Arrays.asList(
@@ -34,38 +41,62 @@ class FortressBuildingBlockData {
             BlockTags.SAND,
             BlockTags.LOGS
     );
-    private final List<PositionedState> referenceState = new ArrayList<>();
-    private final Map<BlockPos, BuildingBlockState> actualState = new HashMap<>();
+
+    private final List<BlockState> palette = new ArrayList<>();
+    private long[] positions;
+    private int[] states;
+    private final BitSet destroyed = new BitSet();
+    private final BitSet pendingChanges = new BitSet();
+    private int destroyedCount = 0;
+    private int health = 0;
     private int blockPointer = 0;
-    private List<BlockPos> preservedPositions;
 
 
     FortressBuildingBlockData(Map<BlockPos, BlockState> preservedState, int floorYLevel) {
+        final var referenceState = new TreeMap<Long, BlockState>();
         for (Map.Entry<BlockPos, BlockState> entry : preservedState.entrySet()) {
             final var pos = entry.getKey();
             final var state = entry.getValue();
             if (shouldSkipBlock(pos, state, floorYLevel) || shouldSkipState(state))
                 continue;
-            final var positionedState = new PositionedState(pos, state);
-            this.referenceState.add(positionedState);
-            this.actualState.put(pos, BuildingBlockState.PRESERVED);
+            referenceState.put(pos.asLong(), state);
         }
-    }
-
-    public List<PositionedState> getReferenceState() {
-        return referenceState;
+        setReferenceState(referenceState);
+        recalculateHealth();
     }
 
     private FortressBuildingBlockData(NbtCompound tag) {
         if (tag.contains("pointer", NbtType.NUMBER))
             blockPointer = tag.getInt("pointer");
 
-        final var skippedPositions = new ArrayList<BlockPos>();
+        if (tag.contains("positions", NbtType.LONG_ARRAY)) {
+            readCompactNbt(tag);
+        } else {
+            readLegacyNbt(tag);
+        }
+        recalculateHealth();
+    }
+
+    private void readCompactNbt(NbtCompound tag) {
+        final var paletteTag = tag.getList("palette", NbtType.COMPOUND);
+        for (int i = 0; i < paletteTag.size(); i++) {
+            palette.add(NbtHelper.toBlockState(Registries.BLOCK.getReadOnlyWrapper(), paletteTag.getCompound(i)));
+        }
+        positions = tag.getLongArray("positions");
+        states = tag.getIntArray("states");
+        if (positions.length != states.length)
+            throw new IllegalArgumentException("Invalid building block data: positions and states have different sizes");
+        destroyed.or(BitSet.valueOf(tag.getLongArray("destroyed")));
+        destroyed.clear(positions.length, Math.max(positions.length, destroyed.length()));
+    }
+
+    private void readLegacyNbt(NbtCompound tag) {
+        final var referenceState = new TreeMap<Long, BlockState>();
         if (tag.contains("referenceState", NbtType.LIST)) {
             final var list = tag.getList("referenceState", NbtType.COMPOUND);
             for (int i = 0; i < list.size(); i++) {
                 final var compound = list.getCompound(i);
-                final var pos = BlockPos.fromLong(compound.getLong("pos"));
+                final var pos = compound.getLong("pos");
                 final var blockStateTag = compound.get("blockState");
                 if (blockStateTag != null) {
                     final BlockState blockState;
@@ -81,38 +112,57 @@ class FortressBuildingBlockData {
                         throw new IllegalArgumentException("Invalid block state tag");
                     }
 
-                    if (shouldSkipState(blockState)) {
-                        skippedPositions.add(pos);
+                    if (shouldSkipState(blockState))
                         continue;
-                    }
-
 
-                    final var positionedState = new PositionedState(pos, blockState);
-                    referenceState.add(positionedState);
+                    referenceState.put(pos, blockState);
                 }
             }
         }
+        setReferenceState(referenceState);
 
         if (tag.contains("actualState", NbtType.LIST)) {
             final var list = tag.getList("actualState", NbtType.COMPOUND);
             for (int i = 0; i < list.size(); i++) {
                 final var compound = list.getCompound(i);
-                final var pos = BlockPos.fromLong(compound.getLong("pos"));
-                if (skippedPositions.contains(pos))
+                final var index = indexOf(compound.getLong("pos"));
+                if (index < 0)
                     continue;
                 final var blockState = compound.getString("blockState");
                 try {
                     final var block = BuildingBlockState.valueOf(blockState);
-                    actualState.put(pos, block);
+                    destroyed.set(index, block == BuildingBlockState.DESTROYED);
                 } catch (IllegalArgumentException e) {
                     LogManager.getLogger().error("Invalid block state: " + blockState);
                     throw e;
                 }
+            }
+        }
+    }
 
+    private void setReferenceState(SortedMap<Long, BlockState> referenceState) {
+        final var paletteIndices = new Object2IntOpenHashMap<BlockState>();
+        paletteIndices.defaultReturnValue(-1);
+        positions = new long[referenceState.size()];
+        states = new int[referenceState.size()];
+
+        int i = 0;
+        for (Map.Entry<Long, BlockState> entry : referenceState.entrySet()) {
+            final var state = entry.getValue();
+            var paletteIndex = paletteIndices.getInt(state);
+            if (paletteIndex == -1) {
+                paletteIndex = palette.size();
+                palette.add(state);
+                paletteIndices.put(state, paletteIndex);
             }
+            positions[i] = entry.getKey();
+            states[i] = paletteIndex;
+            i++;
         }
+    }
 
-        recalculatePreservedPositions();
+    private int indexOf(long pos) {
+        return Arrays.binarySearch(positions, pos);
     }
 
     private static boolean shouldSkipState(BlockState state) {
@@ -159,131 +209,162 @@ class FortressBuildingBlockData {
     }
 
     boolean checkTheNextBlocksState(int blocksAmount, ServerWorld world) {
-        if (referenceState.isEmpty()) return false;
+        if (positions.length == 0) return false;
         if (world.getRegistryKey() != World.OVERWORLD)
             throw new IllegalArgumentException("The world must be the overworld");
 
+        final var mutablePos = new BlockPos.Mutable();
         boolean stateUpdated = false;
         for (int i = 0; i < blocksAmount; i++) {
-            blockPointer = blockPointer % referenceState.size();
-            final var state = referenceState.get(blockPointer);
-            final var pos = state.pos;
-            final var referenceBlock = state.blockState;
+            blockPointer = blockPointer % positions.length;
+            final var referenceBlock = palette.get(states[blockPointer]);
 
-            final var actualBlock = world.getBlockState(pos);
+            final var actualBlock = world.getBlockState(mutablePos.set(positions[blockPointer]));
 
-            final var previousState = actualState.getOrDefault(pos, BuildingBlockState.PRESERVED);
-            final var newState = areBlocksSimilar(referenceBlock, actualBlock) ? BuildingBlockState.PRESERVED : BuildingBlockState.DESTROYED;
+            final var wasDestroyed = destroyed.get(blockPointer);
+            final var isDestroyed = !areBlocksSimilar(referenceBlock, actualBlock);
 
-            actualState.put(pos, newState);
+            if (wasDestroyed != isDestroyed) {
+                setDestroyed(blockPointer, isDestroyed);
+                pendingChanges.set(blockPointer);
+                stateUpdated = true;
+            }
 
             blockPointer++;
-            stateUpdated = stateUpdated || previousState != newState;
         }
 
-        if (stateUpdated)
-            recalculatePreservedPositions();
-
         return stateUpdated;
     }
 
-    private void recalculatePreservedPositions() {
-        preservedPositions = actualState.entrySet()
-                .stream()
-                .filter(it -> it.getValue() == BuildingBlockState.PRESERVED)
-                .map(Map.Entry::getKey)
-                .toList();
+    private void setDestroyed(int index, boolean isDestroyed) {
+        if (destroyed.get(index) == isDestroyed) return;
+        destroyed.set(index, isDestroyed);
+        destroyedCount += isDestroyed ? 1 : -1;
+        updateHealth();
+    }
+
+    private void recalculateHealth() {
+        destroyedCount = destroyed.cardinality();
+        updateHealth();
+    }
+
+    private void updateHealth() {
+        if (positions.length == 0) {
+            health = 0;
+            return;
+        }
+        final var preserved = positions.length - destroyedCount;
+        final var delta = (float) preserved / (float) positions.length;
+        health = (int) MathHelper.clampedMap(delta, 0.5f, 1, 0, 100);
     }
 
     int getHealth() {
-        if (actualState.isEmpty()) return 0;
-        final var preserved = actualState.values().stream().filter(state -> state == BuildingBlockState.PRESERVED).count();
-        final var delta = (float) preserved / (float) actualState.size();
-        return (int) MathHelper.clampedMap(delta, 0.5f, 1, 0, 100);
+        return health;
     }
 
     NbtCompound toNbt() {
         final var tag = new NbtCompound();
-        final var preservedStateList = new NbtList();
-        for (PositionedState positionedState : referenceState) {
-            final var compound = new NbtCompound();
-            compound.putLong("pos", positionedState.pos.asLong());
-            final var blockState = positionedState.blockState;
-            compound.put("blockState", NbtHelper.fromBlockState(blockState));
-            preservedStateList.add(compound);
+        final var paletteTag = new NbtList();
+        for (BlockState state : palette) {
+            paletteTag.add(NbtHelper.fromBlockState(state));
         }
-        tag.put("referenceState", preservedStateList);
-
-        final var actualStateList = new NbtList();
-        for (Map.Entry<BlockPos, BuildingBlockState> entry : actualState.entrySet()) {
-            final var compound = new NbtCompound();
-            compound.putLong("pos", entry.getKey().asLong());
-            compound.putString("blockState", entry.getValue().name());
-            actualStateList.add(compound);
-        }
-
-        tag.put("actualState", actualStateList);
+        tag.put("palette", paletteTag);
+        tag.putLongArray("positions", positions);
+        tag.putIntArray("states", states);
+        tag.putLongArray("destroyed", destroyed.toLongArray());
         tag.putInt("pointer", blockPointer);
 
         return tag;
     }
 
+    boolean hasPendingChanges() {
+        return !pendingChanges.isEmpty();
+    }
+
+    void clearPendingChanges() {
+        pendingChanges.clear();
+    }
+
+    /**
+     * Writes the blocks which changed their state since the last call and forgets them.
+     */
+    NbtCompound pollChangesNbt() {
+        final var destroyedPositions = new LongArrayList();
+        final var preservedPositions = new LongArrayList();
+        for (int i = pendingChanges.nextSetBit(0); i >= 0; i = pendingChanges.nextSetBit(i + 1)) {
+            final var changedPositions = destroyed.get(i) ? destroyedPositions : preservedPositions;
+            changedPositions.add(positions[i]);
+        }
+        pendingChanges.clear();
+
+        final var tag = new NbtCompound();
+        tag.putLongArray("destroyed", destroyedPositions.toLongArray());
+        tag.putLongArray("preserved", preservedPositions.toLongArray());
+        return tag;
+    }
+
+    void applyChangesNbt(NbtCompound tag) {
+        for (long pos : tag.getLongArray("destroyed")) {
+            final var index = indexOf(pos);
+            if (index >= 0) setDestroyed(index, true);
+        }
+        for (long pos : tag.getLongArray("preserved")) {
+            final var index = indexOf(pos);
+            if (index >= 0) setDestroyed(index, false);
+        }
+    }
+
     boolean attack(HostileEntity attacker) {
+        if (positions.length == 0) return false;
         final var world = attacker.getWorld();
         final var random = world.random;
-        for (Map.Entry<BlockPos, BuildingBlockState> entries : actualState.entrySet()) {
-            final var pos = entries.getKey();
-            final var state = entries.getValue();
-            if (state == BuildingBlockState.DESTROYED)
-                continue;
-
 
-            if (random.nextFloat() >= 0.6f) {
-                world.syncWorldEvent(
-                        WorldEvents.BLOCK_BROKEN,
-                        pos,
-                        Block.getRawIdFromState(world.getBlockState(pos))
-                );
-                world.setBlockState(pos, Blocks.AIR.getDefaultState());
-                world.emitGameEvent(attacker, GameEvent.BLOCK_DESTROY, pos);
-                return true;
-            }
-            break;
+        final var firstPreserved = destroyed.nextClearBit(0);
+        if (firstPreserved < positions.length && random.nextFloat() >= 0.6f) {
+            final var pos = BlockPos.fromLong(positions[firstPreserved]);
+            world.syncWorldEvent(
+                    WorldEvents.BLOCK_BROKEN,
+                    pos,
+                    Block.getRawIdFromState(world.getBlockState(pos))
+            );
+            world.setBlockState(pos, Blocks.AIR.getDefaultState());
+            world.emitGameEvent(attacker, GameEvent.BLOCK_DESTROY, pos);
+            return true;
         }
 
-        if (preservedPositions != null) {
-            final var pos = preservedPositions.get(random.nextInt(preservedPositions.size()));
-            world.setBlockBreakingInfo(attacker.getId(), pos, random.nextInt(10));
+        var preserved = destroyed.nextClearBit(random.nextInt(positions.length));
+        if (preserved >= positions.length)
+            preserved = firstPreserved;
+        if (preserved < positions.length) {
+            world.setBlockBreakingInfo(attacker.getId(), BlockPos.fromLong(positions[preserved]), random.nextInt(10));
         }
 
         return false;
     }
 
     Map<BlockPos, BlockState> getAllBlockStatesToRepairTheBuilding() {
-        final var map = new HashMap<BlockPos, BlockState>();
-        for (Map.Entry<BlockPos, BuildingBlockState> entry : actualState.entrySet()) {
-            final var pos = entry.getKey();
-            final var state = entry.getValue();
-            if (state == BuildingBlockState.PRESERVED)
-                continue;
-
-            final var blockState = referenceState
-                    .stream()
-                    .filter(it -> it.pos.equals(pos))
-                    .findFirst()
-                    .orElseThrow()
-                    .blockState;
-            map.put(pos, blockState);
+        final var map = new HashMap<BlockPos, BlockState>((int) (destroyedCount / 0.75f) + 1);
+        for (int i = destroyed.nextSetBit(0); i >= 0 && i < positions.length; i = destroyed.nextSetBit(i + 1)) {
+            map.put(BlockPos.fromLong(positions[i]), palette.get(states[i]));
         }
         return map;
     }
 
-    List<BlockPos> getAllPresevedBlockPositions() {
-        return preservedPositions;
+    List<BlockPos> findPositions(Predicate<BlockState> predicate) {
+        final var result = new ArrayList<BlockPos>();
+        for (int i = 0; i < positions.length; i++) {
+            if (predicate.test(palette.get(states[i])))
+                result.add(BlockPos.fromLong(positions[i]));
+        }
+        return result;
     }
 
     List<BlockPos> getActualState() {
-        return new ArrayList<>(actualState.keySet());
+        final var result = new ArrayList<BlockPos>(positions.length);
+        for (long pos : positions) {
+            result.add(BlockPos.fromLong(pos));
+        }
+        return result;
     }
 
     private enum BuildingBlockState {
@@ -291,7 +372,4 @@ class FortressBuildingBlockData {
         PRESERVED,
     }
 
-    public record PositionedState(BlockPos pos, BlockState blockState) {
-    }
-
 }
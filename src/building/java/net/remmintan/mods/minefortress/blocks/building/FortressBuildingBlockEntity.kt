@@ -4,6 +4,7 @@ import net.minecraft.block.BedBlock
 import net.minecraft.block.Block
 import net.minecraft.block.BlockState
 import net.minecraft.block.Blocks
+import net.minecraft.block.enums.BedPart
 import net.minecraft.block.entity.BlockEntity
 import net.minecraft.block.entity.FurnaceBlockEntity
 import net.minecraft.entity.mob.HostileEntity
@@ -37,6 +38,8 @@ import org.slf4j.LoggerFactory
 import java.util.*
 
 private const val MAX_BLOCKS_PER_UPDATE = 10
+private const val HIRE_PROGRESS_REFRESH_TICKS = 20L
+private const val DELTA_NBT_KEY = "delta"
 private val LOGGER: Logger = LoggerFactory.getLogger(FortressBuildingBlockEntity::class.java)
 
 class FortressBuildingBlockEntity(pos: BlockPos?, state: BlockState?) :
@@ -50,10 +53,14 @@ class FortressBuildingBlockEntity(pos: BlockPos?, state: BlockState?) :
     private var end: BlockPos? = null
     private var blockData: FortressBuildingBlockData? = null
     private var furnaceBlockPositions: List<BlockPos>? = null
+    private var bedPositions: List<BlockPos>? = null
     private var hireHandler: BuildingHireHandler = BuildingHireHandler()
     private val attackers: MutableSet<HostileEntity> = HashSet()
     var selectedTabIndex = 0
 
+    private var fullSyncNeeded = true
+    private var hireHandlerChanged = false
+
     private val automationArea: IAutomationArea by lazy {
         BuildingAutomationArea(start!!, end!!, metadata.requirement)
     }
@@ -83,15 +90,17 @@ class FortressBuildingBlockEntity(pos: BlockPos?, state: BlockState?) :
         val movedBlocksData = blockData.mapKeys { it.key.add(start) }
 
         this.blockData = FortressBuildingBlockData(movedBlocksData, metadata.floorLevel)
+        this.bedPositions = null
 
         this.findFurnaces();
 
         this.hireHandler = BuildingHireHandler()
+        this.fullSyncNeeded = true
     }
 
     fun tick(world: World?) {
         world ?: return
-        blockData?.checkTheNextBlocksState(MAX_BLOCKS_PER_UPDATE, world as? ServerWorld)
+        val blocksChanged = blockData?.checkTheNextBlocksState(MAX_BLOCKS_PER_UPDATE, world as? ServerWorld) == true
 
         hireHandler.let {
             if (!it.initialized()) {
@@ -99,14 +108,21 @@ class FortressBuildingBlockEntity(pos: BlockPos?, state: BlockState?) :
                 getManagers(world).ifPresent { (prof, build, res) -> it.init(professionType, prof, build, res) }
             }
 
-            if (it.initialized())
+            if (it.initialized()) {
                 it.tick()
+                if (world.time % HIRE_PROGRESS_REFRESH_TICKS == 0L)
+                    it.refreshProgresses()
+            }
         }
-
-        this.markDirty()
-        if (this.world?.isClient == false) {
-            val state = this.cachedState
-            this.world?.updateListeners(this.pos, state, state, Block.NOTIFY_ALL)
+        val hireChanged = hireHandler.consumeChanges()
+        hireHandlerChanged = hireHandlerChanged || hireChanged
+
+        if (blocksChanged || hireChanged || fullSyncNeeded) {
+            this.markDirty()
+            if (this.world?.isClient == false) {
+                val state = this.cachedState
+                this.world?.updateListeners(this.pos, state, state, Block.NOTIFY_ALL)
+            }
         }
     }
 
@@ -126,9 +142,7 @@ class FortressBuildingBlockEntity(pos: BlockPos?, state: BlockState?) :
         furnaceBlockPositions;
 
     override fun findFurnaces() {
-        this.furnaceBlockPositions = this.blockData?.referenceState
-            ?.filter { it.blockState?.isOf(Blocks.FURNACE) == true }
-            ?.map { it.pos.toImmutable() }
+        this.furnaceBlockPositions = this.blockData?.findPositions { it.isOf(Blocks.FURNACE) }
     }
 
     override fun createMenu(syncId: Int, playerInventory: PlayerInventory?, player: PlayerEntity?): ScreenHandler {
@@ -175,11 +189,17 @@ class FortressBuildingBlockEntity(pos: BlockPos?, state: BlockState?) :
     }
 
     override fun readNbt(nbt: NbtCompound) {
+        if (nbt.getBoolean(DELTA_NBT_KEY)) {
+            readDeltaNbt(nbt)
+            return
+        }
+
         fortressPos = BlockPos.fromLong(nbt.getLong("fortressCenter"))
         blueprintMetadata = BlueprintMetadata(nbt.getCompound("blueprintMetadata"))
         start = BlockPos.fromLong(nbt.getLong("start"))
         end = BlockPos.fromLong(nbt.getLong("end"))
         blockData = FortressBuildingBlockData.fromNbt(nbt.getCompound("blockData"))
+        bedPositions = null
         hireHandler.updateFromNbt(nbt.getCompound("hireHandler"))
     }
 
@@ -193,25 +213,54 @@ class FortressBuildingBlockEntity(pos: BlockPos?, state: BlockState?) :
     }
 
     override fun toUpdatePacket(): Packet<ClientPlayPacketListener> {
-        val nbt = NbtCompound()
-        writeNbt(nbt)
+        val nbt = if (fullSyncNeeded) {
+            fullSyncNeeded = false
+            hireHandlerChanged = false
+            blockData?.clearPendingChanges()
+            createNbt()
+        } else {
+            writeDeltaNbt()
+        }
         return BlockEntityUpdateS2CPacket.create(this) { nbt }
     }
 
+    override fun toInitialChunkDataNbt(): NbtCompound = createNbt()
+
+    /**
+     * Only the blocks that changed their state and the hire progress (if it changed) are sent to the client.
+     * Everything else is sent with the initial chunk data or when the full sync is needed.
+     */
+    private fun writeDeltaNbt(): NbtCompound {
+        val nbt = NbtCompound()
+        nbt.putBoolean(DELTA_NBT_KEY, true)
+        blockData?.let {
+            if (it.hasPendingChanges())
+                nbt.put("blockDataChanges", it.pollChangesNbt())
+        }
+        if (hireHandlerChanged) {
+            nbt.put("hireHandler", hireHandler.toNbt())
+            hireHandlerChanged = false
+        }
+        return nbt
+    }
+
+    private fun readDeltaNbt(nbt: NbtCompound) {
+        if (nbt.contains("blockDataChanges"))
+            blockData?.applyChangesNbt(nbt.getCompound("blockDataChanges"))
+        if (nbt.contains("hireHandler"))
+            hireHandler.updateFromNbt(nbt.getCompound("hireHandler"))
+    }
+
     override fun getHealth(): Int = blockData?.health ?: 100
 
     override fun getStart(): BlockPos? = start
     override fun getEnd(): BlockPos? = end
 
-    override fun getFreeBed(world: World?): Optional<BlockPos> {
-        return BlockPos
-            .stream(start, end)
-            .toList()
-            .firstOrNull {
-                val blockState = world?.getBlockState(it) ?: Blocks.AIR.defaultState
-                blockState.isIn(BlockTags.BEDS) && !blockState.get(BedBlock.OCCUPIED)
-            }
-            ?.let { Optional.of(it) } ?: Optional.empty()
+    override fun getBedPositions(): List<BlockPos> {
+        return bedPositions ?: (blockData
+            ?.findPositions { it.isIn(BlockTags.BEDS) && it.get(BedBlock.PART) == BedPart.HEAD }
+            ?.also { bedPositions = it }
+            ?: emptyList())
     }
 
 
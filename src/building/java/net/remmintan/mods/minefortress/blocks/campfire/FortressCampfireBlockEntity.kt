@@ -8,11 +8,12 @@ import net.minecraft.server.world.ServerWorld
 import net.minecraft.util.math.BlockPos
 import net.minecraft.world.World
 import net.remmintan.mods.minefortress.blocks.FortressBlocks
-import net.remmintan.mods.minefortress.core.interfaces.entities.player.IFortressPlayerEntity
 import net.remmintan.mods.minefortress.core.interfaces.server.IFortressHolder
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManagersProvider
+import net.remmintan.mods.minefortress.core.services.FortressHolderRegistry
 import net.remmintan.mods.minefortress.core.services.FortressManagerLocator
+import net.remmintan.mods.minefortress.core.services.FortressOwnersRegistry
 
 class FortressCampfireBlockEntity(pos: BlockPos, state: BlockState) :
     BlockEntity(FortressBlocks.CAMPFIRE_ENT_TYPE, pos, state), IFortressHolder {
@@ -61,11 +62,15 @@ class FortressCampfireBlockEntity(pos: BlockPos, state: BlockState) :
 
     }
 
+    override fun markRemoved() {
+        super.markRemoved()
+        FortressHolderRegistry.unregister(pos, this)
+    }
+
     override fun getServerFortressManager() = fortressManager
     override fun getServerManagersProvider() = managersProvider
     override fun getFortressOwner(): ServerPlayerEntity? {
-        return world?.server?.playerManager?.playerList?.find {
-            (it as IFortressPlayerEntity).get_FortressPos().map { p -> p.equals(pos) }.orElse(false)
-        }
+        val server = world?.server ?: return null
+        return FortressOwnersRegistry.getOwner(server, pos)
     }
 }
\ No newline at end of file
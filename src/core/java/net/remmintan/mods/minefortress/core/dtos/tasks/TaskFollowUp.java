@@ -0,0 +1,94 @@
+package net.remmintan.mods.minefortress.core.dtos.tasks;
+
+import net.minecraft.item.Item;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The task to start after another task is finished, e.g. the blueprint build after digging its foundation.
+ * Unlike the finish listeners it is saved together with the task, so it is started after the server restart too.
+ */
+public sealed interface TaskFollowUp permits TaskFollowUp.Blueprint, TaskFollowUp.Roads {
+
+    NbtCompound toNbt();
+
+    /**
+     * @return the id of the task the items are already reserved for, the reservation must be kept until the
+     * follow-up is started
+     */
+    @Nullable
+    default UUID getReservedTaskId() {
+        return null;
+    }
+
+    @Nullable
+    static TaskFollowUp fromNbt(NbtCompound tag) {
+        return switch (tag.getString("type")) {
+            case Blueprint.NBT_TYPE -> new Blueprint(
+                    tag.getString("blueprintId"),
+                    BlockPos.fromLong(tag.getLong("start")),
+                    BlockRotation.valueOf(tag.getString("rotation")),
+                    tag.contains("upgradedBuilding") ? BlockPos.fromLong(tag.getLong("upgradedBuilding")) : null
+            );
+            case Roads.NBT_TYPE -> new Roads(
+                    tag.getUuid("taskId"),
+                    Arrays.stream(tag.getLongArray("blocks")).mapToObj(BlockPos::fromLong).toList(),
+                    Item.byRawId(tag.getInt("item"))
+            );
+            default -> null;
+        };
+    }
+
+    /**
+     * Builds the blueprint, the items are reserved when the build task is created. The upgraded building is
+     * destroyed before the build, in case it was registered again while digging.
+     */
+    record Blueprint(String blueprintId, BlockPos startPos, BlockRotation rotation, @Nullable BlockPos upgradedBuildingPos) implements TaskFollowUp {
+
+        private static final String NBT_TYPE = "blueprint";
+
+        @Override
+        public NbtCompound toNbt() {
+            final var tag = new NbtCompound();
+            tag.putString("type", NBT_TYPE);
+            tag.putString("blueprintId", blueprintId);
+            tag.putLong("start", startPos.asLong());
+            tag.putString("rotation", rotation.name());
+            if (upgradedBuildingPos != null)
+                tag.putLong("upgradedBuilding", upgradedBuildingPos.asLong());
+            return tag;
+        }
+
+    }
+
+    /**
+     * Places the road blocks, the items are reserved for the task id before the roads are dug.
+     */
+    record Roads(UUID taskId, List<BlockPos> blocks, Item item) implements TaskFollowUp {
+
+        private static final String NBT_TYPE = "roads";
+
+        @Override
+        public NbtCompound toNbt() {
+            final var tag = new NbtCompound();
+            tag.putString("type", NBT_TYPE);
+            tag.putUuid("taskId", taskId);
+            tag.putLongArray("blocks", blocks.stream().map(BlockPos::asLong).toList());
+            tag.putInt("item", Item.getRawId(item));
+            return tag;
+        }
+
+        @Override
+        public UUID getReservedTaskId() {
+            return taskId;
+        }
+
+    }
+
+}
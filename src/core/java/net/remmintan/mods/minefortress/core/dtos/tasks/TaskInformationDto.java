@@ -1,9 +1,25 @@
 package net.remmintan.mods.minefortress.core.dtos.tasks;
 
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
+import net.remmintan.mods.minefortress.core.utils.BlockBoxUtils;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-public record TaskInformationDto(UUID id, List<BlockPos> positions, TaskType type) {}
+/**
+ * The task area is described by the boxes instead of the separate positions, so the large tasks stay small on the wire.
+ */
+public record TaskInformationDto(UUID id, List<BlockBox> boxes, TaskType type) {
+
+    public static TaskInformationDto fromPositions(UUID id, Collection<BlockPos> positions, TaskType type) {
+        return new TaskInformationDto(id, BlockBoxUtils.toBoxes(positions), type);
+    }
+
+    public Iterable<BlockPos> positions() {
+        return BlockBoxUtils.iterate(boxes);
+    }
+
+}
@@ -65,7 +65,7 @@ public interface IFortressBuilding {
         return BlockBox.create(start, end).contains(pos);
     }
 
-    Optional<BlockPos> getFreeBed(World world);
+    List<BlockPos> getBedPositions();
 
     boolean satisfiesRequirement(ProfessionType type, int level);
 
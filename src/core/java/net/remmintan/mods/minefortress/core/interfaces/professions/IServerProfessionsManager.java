@@ -16,5 +16,6 @@ public interface IServerProfessionsManager extends IProfessionsManager, IServerM
     void decreaseAmount(String professionId, boolean b);
     void sendProfessions(ServerPlayerEntity player);
     void reservePawn();
+    void scheduleProfessionsAssignment();
 
 }
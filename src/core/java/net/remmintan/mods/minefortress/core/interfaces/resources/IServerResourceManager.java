@@ -7,7 +7,10 @@ import net.remmintan.mods.minefortress.core.interfaces.server.IServerManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.ISyncableServerManager;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 public interface IServerResourceManager extends IResourceManager, IServerManager, ISyncableServerManager {
     ItemInfo createItemInfo(Item item, int amount);
@@ -21,6 +24,26 @@ public interface IServerResourceManager extends IResourceManager, IServerManager
     void removeItems(List<ItemInfo> items);
     void returnReservedItems(UUID taskId);
 
+    /**
+     * @return the ids of all the tasks with the reserved items, the returned set is a copy
+     */
+    Set<UUID> getReservedTaskIds();
+
     List<ItemStack> getAllItems();
 
+    /**
+     * Cheaper than {@link #getAllItems()} when only one item is needed, nothing is copied.
+     */
+    int getItemAmount(Item item);
+
+    /**
+     * @return any item with the positive amount matching the predicate, the items are checked without copying them
+     */
+    Optional<Item> findItem(Predicate<Item> predicate);
+
+    /**
+     * @return the available food with the best nutrition and without harmful effects
+     */
+    Optional<Item> findMostNutritiousFood();
+
 }
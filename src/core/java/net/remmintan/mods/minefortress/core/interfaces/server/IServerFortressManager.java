@@ -26,6 +26,7 @@ public interface IServerFortressManager extends IFortressManager, IWritableManag
     void killAllPawns();
 
     Set<IProfessional> getProfessionals();
+    int countPawnsWithProfession(String professionId);
 
     BlockPos getFortressCenter();
 
@@ -54,6 +55,7 @@ public interface IServerFortressManager extends IFortressManager, IWritableManag
     void expandTheVillage(BlockPos pos);
 
     void addPawn(LivingEntity pawn);
+    void updatePawnProfession(IProfessional pawn);
     Optional<BlockPos> getRandomPositionAroundCampfire();
 
     Optional<LivingEntity> spawnPawnNearCampfire();
@@ -61,6 +63,7 @@ public interface IServerFortressManager extends IFortressManager, IWritableManag
     void spawnDebugEntitiesAroundCampfire(EntityType<? extends IFortressAwareEntity> entityType, int num, ServerPlayerEntity player);
 
     Optional<IProfessional> getPawnWithoutAProfession();
+    Optional<IProfessional> getPawnWithProfession(String professionId);
 
     List<IWorkerPawn> getFreeWorkers();
 
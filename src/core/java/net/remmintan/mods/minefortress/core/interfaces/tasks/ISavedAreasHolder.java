@@ -5,10 +5,16 @@ import net.remmintan.mods.minefortress.core.interfaces.automation.IAutomationAre
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface ISavedAreasHolder extends ITasksRenderInfoProvider, ITasksModelBuilderInfoProvider {
     void setSavedAreas(List<IAutomationAreaInfo> savedAreas);
 
+    /**
+     * Replaces the areas with the same ids as the updated ones, adds the new ones and removes the removed ones.
+     */
+    void updateSavedAreas(List<IAutomationAreaInfo> updatedAreas, List<UUID> removedAreas);
+
     Optional<IAutomationAreaInfo> getHovered(BlockPos pos);
 
     void setNeedRebuild(boolean rebuildNeeded);
@@ -1,6 +1,7 @@
 package net.remmintan.mods.minefortress.core.interfaces.tasks;
 
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskFollowUp;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManager;
 
 import java.util.List;
@@ -9,6 +10,12 @@ import java.util.UUID;
 public interface IServerTaskManager extends IServerManager {
     void addTask(ITask task, List<Integer> selectedPawnIds, ServerPlayerEntity player);
 
+    /**
+     * Starts the follow-up task when the task is finished. Unlike the finish listener the follow-up is saved with
+     * the task, so it is started even if the server restarts before the task is finished.
+     */
+    void addTask(ITask task, TaskFollowUp followUp, List<Integer> selectedPawnIds, ServerPlayerEntity player);
+
 
     void cancelTask(UUID id, ServerPlayerEntity player);
 }
@@ -1,10 +1,12 @@
 package net.remmintan.mods.minefortress.core.interfaces.tasks;
 
 import com.mojang.datafixers.util.Pair;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.UUID;
@@ -12,7 +14,10 @@ import java.util.UUID;
 public interface ITask {
     UUID getId();
     TaskType getTaskType();
-    default void prepareTask() {}
+    /**
+     * @param workersCount the number of workers starting the task, the parts can be sized for them
+     */
+    default void prepareTask(int workersCount) {}
     boolean hasAvailableParts();
     ITaskPart getNextPart(IWorkerPawn colonist);
     void returnPart(Pair<BlockPos, BlockPos> partStartAndEnd);
@@ -25,4 +30,19 @@ public interface ITask {
     void cancel();
     boolean isCanceled();
 
+    /**
+     * @return the queued tasks with the higher priority are started first
+     */
+    default int getPriority() {
+        return 0;
+    }
+
+    /**
+     * @return the state of the task to restore after the server restart or null if the task can't be saved
+     */
+    @Nullable
+    default NbtCompound toNbt() {
+        return null;
+    }
+
 }
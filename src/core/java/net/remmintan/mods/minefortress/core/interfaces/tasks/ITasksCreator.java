@@ -3,6 +3,7 @@ package net.remmintan.mods.minefortress.core.interfaces.tasks;
 import net.minecraft.item.Item;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.interfaces.selections.ServerSelectionType;
@@ -17,6 +18,6 @@ public interface ITasksCreator extends IServerManager {
 
     ITask createRoadsTask(UUID uuid, List<BlockPos> blocks, Item itemInHand);
 
-    ITask createSelectionTask(UUID id, TaskType taskType, BlockPos start, BlockPos end, ServerSelectionType selectionType, HitResult hitResult, List<BlockPos> positions, ServerPlayerEntity player);
+    ITask createSelectionTask(UUID id, TaskType taskType, BlockPos start, BlockPos end, ServerSelectionType selectionType, HitResult hitResult, List<BlockBox> selection, ServerPlayerEntity player);
 
 }
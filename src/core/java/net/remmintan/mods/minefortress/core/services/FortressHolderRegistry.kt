@@ -0,0 +1,43 @@
+package net.remmintan.mods.minefortress.core.services
+
+import net.minecraft.block.entity.BlockEntity
+import net.minecraft.server.MinecraftServer
+import net.minecraft.util.math.BlockPos
+import net.remmintan.mods.minefortress.core.interfaces.server.IFortressHolder
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Keeps the resolved fortress holders (campfire block entities) by their position, so the managers lookups
+ * don't have to go through the chunk and block entity maps every time.
+ *
+ * The holder stays in the registry until the block entity is removed or its chunk is unloaded.
+ */
+object FortressHolderRegistry {
+
+    private val holders = ConcurrentHashMap<BlockPos, IFortressHolder>()
+
+    fun get(server: MinecraftServer, fortressPos: BlockPos): IFortressHolder? {
+        val cached = holders[fortressPos]
+        if (cached != null) {
+            if (cached !is BlockEntity || !cached.isRemoved) return cached
+            holders.remove(fortressPos, cached)
+        }
+
+        val holder = server.overworld.getBlockEntity(fortressPos) as? IFortressHolder ?: return null
+        register(fortressPos, holder)
+        return holder
+    }
+
+    fun register(fortressPos: BlockPos, holder: IFortressHolder) {
+        holders[fortressPos.toImmutable()] = holder
+    }
+
+    fun unregister(fortressPos: BlockPos, holder: IFortressHolder) {
+        holders.remove(fortressPos, holder)
+    }
+
+    fun clear() {
+        holders.clear()
+    }
+
+}
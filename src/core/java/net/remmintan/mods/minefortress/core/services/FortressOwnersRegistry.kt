@@ -0,0 +1,42 @@
+package net.remmintan.mods.minefortress.core.services
+
+import net.minecraft.server.MinecraftServer
+import net.minecraft.server.network.ServerPlayerEntity
+import net.minecraft.util.math.BlockPos
+import net.remmintan.mods.minefortress.core.interfaces.entities.player.IFortressPlayerEntity
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Maps the fortress positions to the uuids of their owners, so the owner can be found without going through
+ * the whole player list. The player itself is resolved through the player manager, which keeps working after
+ * the player entity is recreated on respawn.
+ */
+object FortressOwnersRegistry {
+
+    private val owners = ConcurrentHashMap<BlockPos, UUID>()
+
+    fun getOwner(server: MinecraftServer, fortressPos: BlockPos): ServerPlayerEntity? {
+        val uuid = owners[fortressPos] ?: return null
+        return server.playerManager.getPlayer(uuid)
+    }
+
+    fun register(player: ServerPlayerEntity) {
+        (player as IFortressPlayerEntity).get_FortressPos().ifPresent { update(player.uuid, it) }
+    }
+
+    fun unregister(player: ServerPlayerEntity) {
+        owners.values.remove(player.uuid)
+    }
+
+    fun update(ownerId: UUID, fortressPos: BlockPos?) {
+        owners.values.remove(ownerId)
+        if (fortressPos != null)
+            owners[fortressPos.toImmutable()] = ownerId
+    }
+
+    fun clear() {
+        owners.clear()
+    }
+
+}
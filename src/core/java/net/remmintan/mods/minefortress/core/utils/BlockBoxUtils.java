@@ -0,0 +1,196 @@
+package net.remmintan.mods.minefortress.core.utils;
+
+import io.netty.handler.codec.DecoderException;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.*;
+
+/**
+ * Describes the sets of positions as lists of boxes, which are much smaller to keep and to send for the usual
+ * rectangular selections and buildings.
+ */
+public class BlockBoxUtils {
+
+    /**
+     * Merges the positions into the rows along the X axis and then merges the equal rows following each other along
+     * the Z axis into the rectangles. The boxes are one block high.
+     */
+    public static List<BlockBox> toBoxes(Collection<BlockPos> positions) {
+        final var sorted = positions.stream()
+                .sorted(Comparator.comparingInt(BlockPos::getY).thenComparingInt(BlockPos::getZ).thenComparingInt(BlockPos::getX))
+                .toList();
+
+        final var boxes = new ArrayList<int[]>();
+        final var openBoxes = new HashMap<Long, int[]>();
+        var currentY = 0;
+        var i = 0;
+        while (i < sorted.size()) {
+            final var first = sorted.get(i++);
+            final var y = first.getY();
+            final var z = first.getZ();
+            final var minX = first.getX();
+            var maxX = minX;
+            while (i < sorted.size()) {
+                final var next = sorted.get(i);
+                if (next.getY() != y || next.getZ() != z || next.getX() > maxX + 1) break;
+                maxX = next.getX();
+                i++;
+            }
+
+            if (boxes.isEmpty() || y != currentY) {
+                openBoxes.clear();
+                currentY = y;
+            }
+            final var rowKey = ((long) minX << 32) | (maxX & 0xFFFFFFFFL);
+            final var openBox = openBoxes.get(rowKey);
+            if (openBox != null && openBox[4] == z - 1) {
+                openBox[4] = z;
+            } else {
+                final var box = new int[]{minX, y, z, maxX, z};
+                boxes.add(box);
+                openBoxes.put(rowKey, box);
+            }
+        }
+
+        return boxes.stream().map(it -> new BlockBox(it[0], it[1], it[2], it[3], it[1], it[4])).toList();
+    }
+
+    /**
+     * @return the positions of all the boxes, the returned positions are mutable
+     */
+    public static Iterable<BlockPos> iterate(List<BlockBox> boxes) {
+        return () -> boxes.stream().flatMap(BlockPos::stream).iterator();
+    }
+
+    /**
+     * @throws ArithmeticException if the count overflows
+     */
+    public static long countBlocks(List<BlockBox> boxes) {
+        long count = 0;
+        for (BlockBox box : boxes) {
+            final long sizeX = (long) box.getMaxX() - box.getMinX() + 1;
+            final long sizeY = (long) box.getMaxY() - box.getMinY() + 1;
+            final long sizeZ = (long) box.getMaxZ() - box.getMinZ() + 1;
+            count = Math.addExact(count, Math.multiplyExact(Math.multiplyExact(sizeX, sizeY), sizeZ));
+        }
+        return count;
+    }
+
+    /**
+     * @return the parts of the boxes inside the bounds, the boxes outside the bounds are dropped
+     */
+    public static List<BlockBox> clip(List<BlockBox> boxes, BlockBox bounds) {
+        final var clipped = new ArrayList<BlockBox>(boxes.size());
+        for (BlockBox box : boxes) {
+            if (!box.intersects(bounds)) continue;
+            clipped.add(new BlockBox(
+                    Math.max(box.getMinX(), bounds.getMinX()),
+                    Math.max(box.getMinY(), bounds.getMinY()),
+                    Math.max(box.getMinZ(), bounds.getMinZ()),
+                    Math.min(box.getMaxX(), bounds.getMaxX()),
+                    Math.min(box.getMaxY(), bounds.getMaxY()),
+                    Math.min(box.getMaxZ(), bounds.getMaxZ())
+            ));
+        }
+        return clipped;
+    }
+
+    /**
+     * Writes every box as the zigzag varint delta of its min corner from the previous box followed by its sizes,
+     * so the neighbouring single block boxes take a few bytes each.
+     */
+    public static void write(PacketByteBuf buf, List<BlockBox> boxes) {
+        buf.writeVarInt(boxes.size());
+        var previousX = 0;
+        var previousY = 0;
+        var previousZ = 0;
+        for (BlockBox box : boxes) {
+            buf.writeVarInt(zigzag(box.getMinX() - previousX));
+            buf.writeVarInt(zigzag(box.getMinY() - previousY));
+            buf.writeVarInt(zigzag(box.getMinZ() - previousZ));
+            buf.writeVarInt(box.getMaxX() - box.getMinX());
+            buf.writeVarInt(box.getMaxY() - box.getMinY());
+            buf.writeVarInt(box.getMaxZ() - box.getMinZ());
+            previousX = box.getMinX();
+            previousY = box.getMinY();
+            previousZ = box.getMinZ();
+        }
+    }
+
+    public static List<BlockBox> read(PacketByteBuf buf) {
+        return read(buf, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Used for the boxes sent by the client, the malformed boxes (negative sizes or coordinates overflowing the int)
+     * are refused the same way as the other malformed packets.
+     *
+     * @throws DecoderException if there are more than maxBoxes boxes or any box is malformed
+     */
+    public static List<BlockBox> read(PacketByteBuf buf, int maxBoxes) {
+        final var size = buf.readVarInt();
+        if (size < 0 || size > maxBoxes)
+            throw new DecoderException("Invalid boxes count: " + size + ", max: " + maxBoxes);
+
+        final var boxes = new ArrayList<BlockBox>(size);
+        var previousX = 0;
+        var previousY = 0;
+        var previousZ = 0;
+        try {
+            for (int i = 0; i < size; i++) {
+                final var minX = Math.addExact(previousX, unzigzag(buf.readVarInt()));
+                final var minY = Math.addExact(previousY, unzigzag(buf.readVarInt()));
+                final var minZ = Math.addExact(previousZ, unzigzag(buf.readVarInt()));
+                final var maxX = Math.addExact(minX, readBoxSize(buf));
+                final var maxY = Math.addExact(minY, readBoxSize(buf));
+                final var maxZ = Math.addExact(minZ, readBoxSize(buf));
+                boxes.add(new BlockBox(minX, minY, minZ, maxX, maxY, maxZ));
+                previousX = minX;
+                previousY = minY;
+                previousZ = minZ;
+            }
+        } catch (ArithmeticException e) {
+            throw new DecoderException("Box coordinates overflow", e);
+        }
+        return boxes;
+    }
+
+    public static int[] toIntArray(List<BlockBox> boxes) {
+        final var array = new int[boxes.size() * 6];
+        for (int i = 0; i < boxes.size(); i++) {
+            final var box = boxes.get(i);
+            array[i * 6] = box.getMinX();
+            array[i * 6 + 1] = box.getMinY();
+            array[i * 6 + 2] = box.getMinZ();
+            array[i * 6 + 3] = box.getMaxX();
+            array[i * 6 + 4] = box.getMaxY();
+            array[i * 6 + 5] = box.getMaxZ();
+        }
+        return array;
+    }
+
+    public static List<BlockBox> fromIntArray(int[] array) {
+        final var boxes = new ArrayList<BlockBox>(array.length / 6);
+        for (int i = 0; i + 5 < array.length; i += 6) {
+            boxes.add(new BlockBox(array[i], array[i + 1], array[i + 2], array[i + 3], array[i + 4], array[i + 5]));
+        }
+        return boxes;
+    }
+
+    private static int readBoxSize(PacketByteBuf buf) {
+        final var size = buf.readVarInt();
+        if (size < 0) throw new DecoderException("Negative box size: " + size);
+        return size;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
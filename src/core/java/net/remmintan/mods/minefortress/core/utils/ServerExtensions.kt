@@ -6,10 +6,10 @@ import net.minecraft.server.network.ServerPlayerEntity
 import net.minecraft.text.Text
 import net.minecraft.util.math.BlockPos
 import net.remmintan.mods.minefortress.core.FortressGamemode
-import net.remmintan.mods.minefortress.core.interfaces.server.IFortressHolder
 import net.remmintan.mods.minefortress.core.interfaces.server.IFortressServer
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManagersProvider
+import net.remmintan.mods.minefortress.core.services.FortressHolderRegistry
 
 fun MinecraftServer.isSurvivalFortress(): Boolean {
     return (this as IFortressServer)._FortressGamemode == FortressGamemode.SURVIVAL
@@ -25,7 +25,7 @@ fun MinecraftServer.sendMessageToFortressOwner(fortressPos: BlockPos, message: S
 }
 
 private fun MinecraftServer.getFortressHolder(fortressPos: BlockPos) =
-    this.overworld.getBlockEntity(fortressPos) as? IFortressHolder
+    FortressHolderRegistry.get(this, fortressPos)
 
 fun MinecraftServer.fortressOwnerHasScreenOpened(
     fortressPos: BlockPos,
@@ -11,6 +11,7 @@ import net.remmintan.mods.minefortress.core.interfaces.entities.player.IFortress
 import net.remmintan.mods.minefortress.core.interfaces.server.IFortressHolder;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManagersProvider;
+import net.remmintan.mods.minefortress.core.services.FortressHolderRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -75,10 +76,6 @@ public final class ServerModUtils {
     @NotNull
     private static Optional<IFortressHolder> getFortressHolder(@Nullable MinecraftServer server, @Nullable BlockPos p) {
         if (server == null || p == null) return Optional.empty();
-        final var blockEntity = server.getOverworld().getBlockEntity(p);
-        if (blockEntity instanceof IFortressHolder holder) {
-            return Optional.of(holder);
-        }
-        return Optional.empty();
+        return Optional.ofNullable(FortressHolderRegistry.INSTANCE.get(server, p));
     }
 }
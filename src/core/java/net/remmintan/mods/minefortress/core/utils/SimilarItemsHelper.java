@@ -8,6 +8,7 @@ import net.minecraft.registry.tag.TagKey;
 import org.spongepowered.include.com.google.common.collect.Sets;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SimilarItemsHelper {
 
@@ -113,6 +114,11 @@ public class SimilarItemsHelper {
 
     private static final Set<Item> IGNORED_ITEMS;
 
+    // the similar items depend on the item tags, so the index is rebuilt when the tags are reloaded on the server
+    // or synced to the client, and cleared when the client disconnects
+    private static final Map<Item, List<Item>> SIMILAR_ITEMS = new ConcurrentHashMap<>();
+    private static final Map<Item, Set<Item>> SIMILAR_ITEMS_SETS = new ConcurrentHashMap<>();
+
     static {
         final var items = Sets.newHashSet(
                 Items.AIR,
@@ -165,7 +171,30 @@ public class SimilarItemsHelper {
         return IGNORED_ITEMS.contains(it);
     }
 
+    /**
+     * Computes the similar items of all the registered items, so the lookups don't compute anything later.
+     */
+    public static void buildIndex() {
+        clearIndex();
+        for (Item item : Registries.ITEM) {
+            getSimilarItems(item);
+        }
+    }
+
+    public static void clearIndex() {
+        SIMILAR_ITEMS.clear();
+        SIMILAR_ITEMS_SETS.clear();
+    }
+
     public static List<Item> getSimilarItems(Item item) {
+        return SIMILAR_ITEMS.computeIfAbsent(item, SimilarItemsHelper::computeSimilarItems);
+    }
+
+    public static boolean isSimilar(Item item, Item other) {
+        return SIMILAR_ITEMS_SETS.computeIfAbsent(item, it -> Set.copyOf(getSimilarItems(it))).contains(other);
+    }
+
+    private static List<Item> computeSimilarItems(Item item) {
         for (List<Item> items : Arrays.asList(strippedLogs, strippedWood, similarDirt, similarFenceGate, similarGlass, similarGlassPanes)) {
             if (items.contains(item))
                 return items.stream().filter(i -> i != item).toList();
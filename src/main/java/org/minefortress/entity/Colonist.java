@@ -67,6 +67,8 @@ public class Colonist extends NamedPawnEntity implements IMinefortressEntity, IW
     private final IBaritone baritone;
 
     private boolean allowToPlaceBlockFromFarAway = false;
+    // assigned in initGoals, which is called from the super constructor, so it must not have an initializer
+    private DailyProfessionTasksGoal dailyProfessionTasksGoal;
 
     public Colonist(EntityType<? extends Colonist> entityType, World world) {
         super(entityType, world, true);
@@ -154,7 +156,8 @@ public class Colonist extends NamedPawnEntity implements IMinefortressEntity, IW
         this.goalSelector.add(2, new ColonistMeleeAttackGoal(this));
         this.goalSelector.add(3, new FleeEntityGoal<>(this, CreeperEntity.class, 5, 1.5D, 2.1D));
         this.goalSelector.add(4, new FollowFortressAttackTargetGoal(this, Colonist.FAST_MOVEMENT_SPEED, Colonist.WORK_REACH_DISTANCE));
-        this.goalSelector.add(5, new DailyProfessionTasksGoal(this));
+        this.dailyProfessionTasksGoal = new DailyProfessionTasksGoal(this);
+        this.goalSelector.add(5, dailyProfessionTasksGoal);
         this.goalSelector.add(6, new ColonistExecuteTaskGoal(this));
 //        this.goalSelector.add(8, new WanderAroundTheFortressGoal(this));
         this.goalSelector.add(8, new SleepOnTheBedGoal(this));
@@ -188,28 +191,20 @@ public class Colonist extends NamedPawnEntity implements IMinefortressEntity, IW
         if(this.taskControl.hasTask()) {
             this.taskControl.fail();
         }
+        if(this.dailyProfessionTasksGoal != null) {
+            this.dailyProfessionTasksGoal.onColonistRemoved();
+        }
     }
 
     @Override
     protected void mobTick() {
         super.mobTick();
-        tickProfessionCheck();
         final var target = this.getTarget();
         if(target != null && !target.isAlive()) {
             this.setTarget(null);
         }
     }
 
-    private void tickProfessionCheck() {
-        final String professionId = this.dataTracker.get(PROFESSION_ID);
-        if(DEFAULT_PROFESSION_ID.equals(professionId) || RESERVE_PROFESSION_ID.equals(professionId)) {
-            ServerModUtils.getManagersProvider(this)
-                    .map(IServerManagersProvider::getProfessionsManager)
-                    .flatMap(it -> it.getProfessionsWithAvailablePlaces(RESERVE_PROFESSION_ID.equals(professionId)))
-                    .ifPresent(this::setProfession);
-        }
-    }
-
     @Override
     public void tick() {
         super.tick();
@@ -358,6 +353,7 @@ public class Colonist extends NamedPawnEntity implements IMinefortressEntity, IW
         final var fmOpt = ServerModUtils.getFortressManager(this);
         if (type == FortressEntities.COLONIST_ENTITY_TYPE) {
             this.dataTracker.set(PROFESSION_ID, professionId);
+            fmOpt.ifPresent(it -> it.updatePawnProfession(this));
         } else if (type == FortressEntities.WARRIOR_PAWN_ENTITY_TYPE || type == FortressEntities.ARCHER_PAWN_ENTITY_TYPE) {
             fmOpt.ifPresent(it -> it.replaceColonistWithTypedPawn(this, professionId, type));
         }
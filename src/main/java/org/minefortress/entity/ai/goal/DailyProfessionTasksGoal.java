@@ -21,6 +21,8 @@ public class DailyProfessionTasksGoal extends AbstractFortressGoal {
     );
 
     private ProfessionDailyTask currentTask;
+    private String currentTaskProfession;
+    private boolean running = false;
 
     public DailyProfessionTasksGoal(Colonist colonist) {
         super(colonist);
@@ -38,18 +40,21 @@ public class DailyProfessionTasksGoal extends AbstractFortressGoal {
                 final ProfessionDailyTask task = dailyTasks.get(professionIdPart);
                 if(task.canStart(colonist)) {
                     this.currentTask = task;
+                    this.currentTaskProfession = professionIdPart;
                     return true;
                 }
             }
         }
 
         this.currentTask = dailyTasks.get(professionId);
+        this.currentTaskProfession = professionId;
         return currentTask != null && this.currentTask.canStart(colonist);
     }
 
     @Override
     public void start() {
         colonist.getTaskControl().setDoingEverydayTasks(true);
+        this.running = true;
         this.currentTask.start(colonist);
     }
 
@@ -62,16 +67,28 @@ public class DailyProfessionTasksGoal extends AbstractFortressGoal {
     public boolean shouldContinue() {
         return  !isHungry()
                 && this.currentTask != null
+                && colonist.getProfessionId().startsWith(currentTaskProfession)
                 && this.currentTask.shouldContinue(colonist)
                 && !getTaskControl().hasTask();
     }
 
     @Override
     public void stop() {
+        this.running = false;
         this.currentTask.stop(colonist);
         colonist.getTaskControl().setDoingEverydayTasks(false);
     }
 
+    /**
+     * The goals are not stopped when the colonist is removed, so the running task is stopped here to give back
+     * what it holds (e.g. the claimed part of the mining area).
+     */
+    public void onColonistRemoved() {
+        if(!running) return;
+        this.running = false;
+        this.currentTask.stop(colonist);
+    }
+
     @Override
     public boolean canStop() {
         return this.isHungry();
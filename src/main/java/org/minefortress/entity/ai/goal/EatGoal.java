@@ -1,10 +1,7 @@
 package org.minefortress.entity.ai.goal;
 
-import com.mojang.datafixers.util.Pair;
 import net.minecraft.entity.ai.goal.Goal;
-import net.minecraft.entity.effect.StatusEffectCategory;
-import net.minecraft.entity.effect.StatusEffectInstance;
-import net.minecraft.item.ItemStack;
+import net.minecraft.item.Item;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IFortressAwareEntity;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.controls.IEatControl;
 import net.remmintan.mods.minefortress.core.interfaces.resources.IServerResourceManager;
@@ -13,7 +10,6 @@ import net.remmintan.mods.minefortress.core.utils.ServerModUtils;
 import org.jetbrains.annotations.NotNull;
 import org.minefortress.entity.HungryEntity;
 
-import java.util.Comparator;
 import java.util.Optional;
 
 public class EatGoal extends Goal {
@@ -31,9 +27,9 @@ public class EatGoal extends Goal {
     @Override
     public void start() {
         getResourceManager().ifPresent(it ->
-            getEatableItem().ifPresent(st -> {
-                it.increaseItemAmount(st.getItem(), -1);
-                getEatControl().eatFood(st.getItem());
+            getEatableItem().ifPresent(item -> {
+                it.increaseItemAmount(item, -1);
+                getEatControl().eatFood(item);
             })
         );
     }
@@ -56,39 +52,8 @@ public class EatGoal extends Goal {
     }
 
     @NotNull
-    private Optional<ItemStack> getEatableItem() {
-        return getResourceManager()
-                .flatMap(it -> it
-                        .getAllItems()
-                        .stream()
-                        .filter(EatGoal::isEatable)
-                        .max(
-                                Comparator.comparingDouble(stack ->
-                                        {
-                                            final var foodComponent = stack.getItem().getFoodComponent();
-                                            //noinspection DataFlowIssue
-                                            return foodComponent.getHunger() * foodComponent.getSaturationModifier() * 2.0f;
-                                        }
-                                )
-                        )
-                );
-    }
-
-    private static boolean isEatable(ItemStack stack) {
-        if(stack.isEmpty() || !stack.getItem().isFood())
-            return false;
-
-        final var foodComponent = stack.getItem().getFoodComponent();
-        final var statusEffects = foodComponent.getStatusEffects();
-        if(statusEffects.isEmpty())
-            return true;
-
-        for (Pair<StatusEffectInstance, Float> statusEffect : statusEffects) {
-            if(statusEffect.getFirst().getEffectType().getCategory() == StatusEffectCategory.HARMFUL)
-                return false;
-        }
-
-        return true;
+    private Optional<Item> getEatableItem() {
+        return getResourceManager().flatMap(IServerResourceManager::findMostNutritiousFood);
     }
 
 }
@@ -4,7 +4,6 @@ import net.minecraft.block.Blocks;
 import net.minecraft.block.CropBlock;
 import net.minecraft.item.BlockItem;
 import net.minecraft.item.Item;
-import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.registry.tag.BlockTags;
 import net.minecraft.registry.tag.FluidTags;
@@ -172,12 +171,9 @@ public class FarmerDailyTask extends AbstractAutomationAreaTask {
         // Use ServerModUtils to get resource manager directly
         return ServerModUtils.getManagersProvider(colonist)
                 .map(IServerManagersProvider::getResourceManager)
-                .flatMap(srm -> srm
-                        .getAllItems()
+                .flatMap(srm -> FARMER_SEEDS
                         .stream()
-                        .filter(it -> !it.isEmpty())
-                        .map(ItemStack::getItem)
-                        .filter(FARMER_SEEDS::contains)
+                        .filter(it -> srm.getItemAmount(it) > 0)
                         .min(Comparator.comparingInt(it -> {
                             if (it == Items.WHEAT_SEEDS) return 0;
                             if (it == Items.POTATO) return 1;
@@ -107,11 +107,8 @@ public class LumberjackDailyTask extends AbstractAutomationAreaTask {
             return ServerModUtils.getManagersProvider(colonist)
                     .map(IServerManagersProvider::getResourceManager)
                     .flatMap(rm -> rm
-                            .getAllItems()
-                            .stream()
-                            .filter(it -> !it.isEmpty() && it.isIn(ItemTags.SAPLINGS))
-                            .findFirst()
-                            .map(it -> (BlockItem) it.getItem())
+                            .findItem(it -> it.getDefaultStack().isIn(ItemTags.SAPLINGS))
+                            .map(it -> (BlockItem) it)
                             .map(it -> {
                                 rm.removeItems(Collections.singletonList(new ItemInfo(it, 1)));
                                 return it;
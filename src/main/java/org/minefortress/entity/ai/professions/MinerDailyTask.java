@@ -4,6 +4,7 @@ import net.minecraft.registry.tag.FluidTags;
 import net.remmintan.mods.minefortress.core.interfaces.automation.area.IAutomationBlockInfo;
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.ProfessionType;
 import org.minefortress.entity.Colonist;
+import org.minefortress.fortress.automation.iterators.MineAreaIterator;
 import org.minefortress.tasks.block.info.DigTaskBlockInfo;
 
 public class MinerDailyTask extends AbstractAutomationAreaTask{
@@ -47,6 +48,8 @@ public class MinerDailyTask extends AbstractAutomationAreaTask{
 
     @Override
     public void stop(Colonist colonist) {
+        if(iterator instanceof MineAreaIterator.Lease lease)
+            lease.release();
         super.stop(colonist);
         this.goal = null;
     }
@@ -0,0 +1,104 @@
+package org.minefortress.fortress;
+
+import net.minecraft.entity.LivingEntity;
+import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IProfessional;
+import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.ITargetedPawn;
+import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Keeps the pawns of the fortress indexed by their type and profession.
+ * The profession index is updated incrementally, so the pawn must be re-indexed every time its profession changes.
+ */
+final class PawnsRegistry {
+
+    private final Set<LivingEntity> pawns = new HashSet<>();
+    private final Set<IProfessional> professionals = new HashSet<>();
+    private final Set<IWorkerPawn> workers = new HashSet<>();
+    private final Set<ITargetedPawn> targetedPawns = new HashSet<>();
+
+    private final Map<IProfessional, String> indexedProfessions = new HashMap<>();
+    private final Map<String, Set<IProfessional>> pawnsByProfession = new HashMap<>();
+
+    boolean add(@Nullable LivingEntity pawn) {
+        if (pawn == null || !pawns.add(pawn)) return false;
+
+        if (pawn instanceof IProfessional professional) {
+            professionals.add(professional);
+            indexProfession(professional);
+        }
+        if (pawn instanceof IWorkerPawn worker) workers.add(worker);
+        if (pawn instanceof ITargetedPawn targetedPawn) targetedPawns.add(targetedPawn);
+        return true;
+    }
+
+    boolean remove(@Nullable LivingEntity pawn) {
+        if (pawn == null || !pawns.remove(pawn)) return false;
+
+        if (pawn instanceof IProfessional professional) {
+            professionals.remove(professional);
+            unindexProfession(professional);
+        }
+        if (pawn instanceof IWorkerPawn worker) workers.remove(worker);
+        if (pawn instanceof ITargetedPawn targetedPawn) targetedPawns.remove(targetedPawn);
+        return true;
+    }
+
+    void updateProfession(IProfessional professional) {
+        if (!professionals.contains(professional)) return;
+        final var indexedProfession = indexedProfessions.get(professional);
+        if (Objects.equals(indexedProfession, professional.getProfessionId())) return;
+
+        unindexProfession(professional);
+        indexProfession(professional);
+    }
+
+    private void indexProfession(IProfessional professional) {
+        final var professionId = professional.getProfessionId();
+        if (professionId == null) return;
+        indexedProfessions.put(professional, professionId);
+        pawnsByProfession.computeIfAbsent(professionId, it -> new HashSet<>()).add(professional);
+    }
+
+    private void unindexProfession(IProfessional professional) {
+        final var professionId = indexedProfessions.remove(professional);
+        if (professionId == null) return;
+        final var pawnsWithProfession = pawnsByProfession.get(professionId);
+        if (pawnsWithProfession != null) {
+            pawnsWithProfession.remove(professional);
+            if (pawnsWithProfession.isEmpty()) pawnsByProfession.remove(professionId);
+        }
+    }
+
+    int size() {
+        return pawns.size();
+    }
+
+    int countWithProfession(String professionId) {
+        final var pawnsWithProfession = pawnsByProfession.get(professionId);
+        return pawnsWithProfession == null ? 0 : pawnsWithProfession.size();
+    }
+
+    Set<IProfessional> getWithProfession(String professionId) {
+        return Collections.unmodifiableSet(pawnsByProfession.getOrDefault(professionId, Collections.emptySet()));
+    }
+
+    Set<LivingEntity> getAll() {
+        return Collections.unmodifiableSet(pawns);
+    }
+
+    Set<IProfessional> getProfessionals() {
+        return Collections.unmodifiableSet(professionals);
+    }
+
+    Set<IWorkerPawn> getWorkers() {
+        return Collections.unmodifiableSet(workers);
+    }
+
+    Set<ITargetedPawn> getTargetedPawns() {
+        return Collections.unmodifiableSet(targetedPawns);
+    }
+
+}
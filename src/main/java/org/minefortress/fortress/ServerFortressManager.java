@@ -47,7 +47,6 @@ import org.minefortress.registries.FortressEntities;
 import org.minefortress.tasks.RepairBuildingTask;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static net.remmintan.mods.minefortress.core.interfaces.automation.ProfessionsSelectionType.QUARRY;
@@ -58,7 +57,7 @@ public final class ServerFortressManager implements IServerFortressManager {
 
     private final MinecraftServer server;
     private final ServerWorld world;
-    private final Set<LivingEntity> pawns = new HashSet<>();
+    private final PawnsRegistry pawns = new PawnsRegistry();
 
     private IPawnNameGenerator nameGenerator = new ColonistNameGenerator();
 
@@ -69,6 +68,7 @@ public final class ServerFortressManager implements IServerFortressManager {
 
 
     private boolean needSync = true;
+    private boolean pawnsChanged = true;
 
     private final BlockPos fortressCenter;
     private int maxColonistsCount = -1;
@@ -83,14 +83,21 @@ public final class ServerFortressManager implements IServerFortressManager {
     }
 
     public void addPawn(LivingEntity colonist) {
-        pawns.add(colonist);
+        if (pawns.add(colonist))
+            pawnsChanged = true;
         scheduleSync();
     }
 
+    @Override
+    public void updatePawnProfession(IProfessional pawn) {
+        pawns.updateProfession(pawn);
+        pawnsChanged = true;
+    }
+
     @Override
     public void setPawnsSkin(PawnSkin pawnsSkin) {
         this.pawnsSkin = pawnsSkin;
-        this.pawns.forEach(it -> {
+        this.pawns.getAll().forEach(it -> {
             if (it instanceof BasePawnEntity bpe) {
                 bpe.setPawnSkin(pawnsSkin);
             }
@@ -130,8 +137,8 @@ public final class ServerFortressManager implements IServerFortressManager {
                     true,
                     false
             );
-            if(pawn instanceof LivingEntity le)
-                pawns.add(le);
+            if(pawn instanceof LivingEntity le && pawns.add(le))
+                pawnsChanged = true;
         }
     }
 
@@ -167,6 +174,7 @@ public final class ServerFortressManager implements IServerFortressManager {
         pawns.remove(colonist);
         final var typedReplacement = entityType.spawn(world, infoTag, (it) -> {}, pos, SpawnReason.EVENT, true, false);
         pawns.add(typedReplacement);
+        pawnsChanged = true;
         getManagersProvider().getFightManager().sync();
     }
 
@@ -180,9 +188,9 @@ public final class ServerFortressManager implements IServerFortressManager {
 
     private void keepColonistsBelowMax() {
         if(maxColonistsCount != -1 && getTotalColonistsCount() > maxColonistsCount) {
-            final var deltaColonists = Math.max( pawns.stream().filter(LivingEntity::isAlive).count() - maxColonistsCount, 0);
+            final var deltaColonists = Math.max( pawns.getAll().stream().filter(LivingEntity::isAlive).count() - maxColonistsCount, 0);
 
-            pawns.stream()
+            pawns.getAll().stream()
                     .filter(LivingEntity::isAlive)
                     .limit(deltaColonists)
                     .forEach(it -> it.damage(getOutOfWorldDamageSource(), Integer.MAX_VALUE));
@@ -190,32 +198,27 @@ public final class ServerFortressManager implements IServerFortressManager {
     }
 
     public int getReservedPawnsCount() {
-        return (int) getProfessionals()
-                .stream()
-                .filter(it -> it.getProfessionId().equals(Colonist.RESERVE_PROFESSION_ID))
-                .count();
+        return pawns.countWithProfession(Colonist.RESERVE_PROFESSION_ID);
+    }
+
+    @Override
+    public int countPawnsWithProfession(String professionId) {
+        return pawns.countWithProfession(professionId);
     }
 
     public void killAllPawns() {
         final var outOfWorldDamageSource = getOutOfWorldDamageSource();
-        pawns.forEach(it -> it.damage(outOfWorldDamageSource, 40f));
+        pawns.getAll().forEach(it -> it.damage(outOfWorldDamageSource, 40f));
     }
 
     private DamageSource getOutOfWorldDamageSource() {
         return world.getDamageSources().outOfWorld();
     }
 
-    private Stream<IWorkerPawn> getWorkersStream() {
-        return pawns
-                .stream()
-                .filter(IWorkerPawn.class::isInstance)
-                .map(IWorkerPawn.class::cast);
-    }
-
     private void tickFortress() {
         keepColonistsBelowMax();
 
-        final var deadPawns = pawns.stream()
+        final var deadPawns = pawns.getAll().stream()
                 .filter(is -> !is.isAlive()).toList();
         if(!deadPawns.isEmpty()) {
             for(LivingEntity pawn : deadPawns) {
@@ -225,9 +228,15 @@ public final class ServerFortressManager implements IServerFortressManager {
                 }
                 pawns.remove(pawn);
             }
+            pawnsChanged = true;
             scheduleSync();
         }
 
+        if (pawnsChanged) {
+            getManagersProvider().getProfessionsManager().scheduleProfessionsAssignment();
+            pawnsChanged = false;
+        }
+
 
         if(this.fortressCenter != null) {
             final var colonistsCount = this.pawns.size();
@@ -321,11 +330,7 @@ public final class ServerFortressManager implements IServerFortressManager {
 
     @Override
     public Set<IProfessional> getProfessionals() {
-        return pawns
-                .stream()
-                .filter(IProfessional.class::isInstance)
-                .map(IProfessional.class::cast)
-                .collect(Collectors.toUnmodifiableSet());
+        return pawns.getProfessionals();
     }
 
     @Override
@@ -454,26 +459,27 @@ public final class ServerFortressManager implements IServerFortressManager {
 
     public Optional<IProfessional> getPawnWithoutAProfession() {
         return pawns
+                .getWithProfession(Colonist.DEFAULT_PROFESSION_ID)
                 .stream()
                 .filter(Colonist.class::isInstance)
-                .map(IProfessional.class::cast)
-                .filter(it -> it.getProfessionId().equals(Colonist.DEFAULT_PROFESSION_ID))
                 .findAny();
     }
 
+    @Override
+    public Optional<IProfessional> getPawnWithProfession(String professionId) {
+        return pawns.getWithProfession(professionId).stream().findAny();
+    }
+
     public List<IWorkerPawn> getFreeWorkers() {
-        return getWorkersStream()
+        return pawns.getWorkers()
+                .stream()
                 .filter(it -> !it.getTaskControl().hasTask() && !it.getTaskControl().isDoingEverydayTasks())
                 .toList();
     }
 
     @Override
     public List<ITargetedPawn> getAllTargetedPawns() {
-        return pawns
-                .stream()
-                .filter(ITargetedPawn.class::isInstance)
-                .map(ITargetedPawn.class::cast)
-                .toList();
+        return List.copyOf(pawns.getTargetedPawns());
     }
 
     private ServerWorld getWorld() {
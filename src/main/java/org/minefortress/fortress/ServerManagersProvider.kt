@@ -26,7 +26,7 @@ class ServerManagersProvider(private val fortressPos: BlockPos, world: ServerWor
     private val managers = mutableMapOf<Class<out IServerManager>, IServerManager>()
 
     init {
-        registerManager(IServerTaskManager::class.java, ServerTaskManager())
+        registerManager(IServerTaskManager::class.java, ServerTaskManager(fortressPos))
         registerManager(IServerProfessionsManager::class.java, ServerProfessionManager(fortressPos, world))
         registerManager(IServerResourceManager::class.java, ServerResourceManager(world.server))
         registerManager(IServerBuildingsManager::class.java, FortressBuildingManager(fortressPos, world))
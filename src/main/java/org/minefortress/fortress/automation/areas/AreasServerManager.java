@@ -14,46 +14,64 @@ import net.remmintan.mods.minefortress.networking.s2c.S2CSyncAreasPacket;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Stream;
 
+/**
+ * Only the added, changed and removed areas are sent to the client, all the areas are resent only
+ * when the full sync is requested (e.g. when the player joins).
+ */
 public final class AreasServerManager implements IServerAutomationAreaManager {
 
-    private boolean needSync = false;
+    private boolean needFullSync = false;
     private final List<ServerAutomationAreaInfo> areas = new ArrayList<>();
+    private final Set<UUID> changedAreas = new HashSet<>();
+    private final Set<UUID> removedAreas = new LinkedHashSet<>();
 
     private int tickCounter = 0;
     private int refreshPointer = 0;
 
     public void addArea(IAutomationAreaInfo area) {
-        areas.add(new ServerAutomationAreaInfo(area));
-        sync();
+        final var serverArea = new ServerAutomationAreaInfo(area);
+        areas.add(serverArea);
+        changedAreas.add(serverArea.getId());
     }
 
     public void removeArea(UUID id) {
         final var areasToRemove = areas.stream().filter(it -> it.getId().equals(id)).toList();
         areasToRemove.forEach(ServerAutomationAreaInfo::reset);
         areas.removeAll(areasToRemove);
-        sync();
+        changedAreas.remove(id);
+        removedAreas.add(id);
     }
 
 
     public void tick(@NotNull MinecraftServer server, @NotNull ServerWorld world, @Nullable ServerPlayerEntity player) {
         if (player == null) return;
 
-        if(tickCounter++ % 20 == 0) {
-            if(areas.isEmpty()) return;
+        if(tickCounter++ % 20 == 0 && !areas.isEmpty()) {
             if(refreshPointer >= areas.size()) refreshPointer = 0;
-            areas.get(refreshPointer++).refresh(world);
-            sync();
+            final var area = areas.get(refreshPointer++);
+            if(area.refresh(world))
+                changedAreas.add(area.getId());
         }
 
-        if(needSync) {
+        if(needFullSync) {
             final var automationAreaInfos = areas.stream().map(IAutomationAreaInfo.class::cast).toList();
-            FortressServerNetworkHelper.send(player, S2CSyncAreasPacket.CHANNEL, new S2CSyncAreasPacket(automationAreaInfos));
-            needSync = false;
+            FortressServerNetworkHelper.send(player, S2CSyncAreasPacket.CHANNEL, new S2CSyncAreasPacket(automationAreaInfos, Collections.emptyList(), true));
+            needFullSync = false;
+            changedAreas.clear();
+            removedAreas.clear();
+        } else if(!changedAreas.isEmpty() || !removedAreas.isEmpty()) {
+            final var changedAreaInfos = new ArrayList<IAutomationAreaInfo>();
+            for (ServerAutomationAreaInfo area : areas) {
+                if(changedAreas.contains(area.getId()))
+                    changedAreaInfos.add(area);
+            }
+            final var packet = new S2CSyncAreasPacket(changedAreaInfos, new ArrayList<>(removedAreas), false);
+            FortressServerNetworkHelper.send(player, S2CSyncAreasPacket.CHANNEL, packet);
+            changedAreas.clear();
+            removedAreas.clear();
         }
     }
 
@@ -65,7 +83,7 @@ public final class AreasServerManager implements IServerAutomationAreaManager {
     }
 
     public void sync() {
-        needSync = true;
+        needFullSync = true;
     }
 
     @Override
@@ -9,10 +9,7 @@ import net.remmintan.mods.minefortress.core.interfaces.tasks.ISavedAreasHolder;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITasksModelBuilderInfoProvider;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITasksRenderInfoProvider;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public final class SavedAreasHolder implements ITasksModelBuilderInfoProvider, ITasksRenderInfoProvider, ISavedAreasHolder {
@@ -26,6 +23,21 @@ public final class SavedAreasHolder implements ITasksModelBuilderInfoProvider, I
         this.setNeedRebuild(true);
     }
 
+    @Override
+    public void updateSavedAreas(List<IAutomationAreaInfo> updatedAreas, List<UUID> removedAreas) {
+        final var areasById = new LinkedHashMap<UUID, IAutomationAreaInfo>();
+        for (IAutomationAreaInfo area : savedAreas) {
+            areasById.put(area.getId(), area);
+        }
+        for (UUID id : removedAreas) {
+            areasById.remove(id);
+        }
+        for (IAutomationAreaInfo area : updatedAreas) {
+            areasById.put(area.getId(), area);
+        }
+        setSavedAreas(new ArrayList<>(areasById.values()));
+    }
+
     @Override
     public boolean isNeedRebuild() {
         return needsUpdate;
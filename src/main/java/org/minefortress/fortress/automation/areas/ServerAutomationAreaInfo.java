@@ -17,13 +17,13 @@ import org.minefortress.utils.AreasUtils;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 public final class ServerAutomationAreaInfo extends AutomationAreaInfo implements IAutomationArea {
 
     private LocalDateTime updated;
     private ResetableIterator<IAutomationBlockInfo> currentIterator;
     private boolean reset = false;
+    private AreasUtils.SurfaceArea surfaceArea;
 
     public ServerAutomationAreaInfo(IAutomationAreaInfo info) {
         this(info.getClientArea(), info.getAreaType(), info.getId(), LocalDateTime.MIN);
@@ -50,17 +50,38 @@ public final class ServerAutomationAreaInfo extends AutomationAreaInfo implement
         if(this.reset) {
             return Collections.emptyIterator();
         }
-        if(currentIterator == null || !currentIterator.hasNext()){
+        final var iterator = getCurrentIterator(world);
+        // every miner gets its own part of the area
+        if(iterator instanceof MineAreaIterator mineIterator) {
+            return mineIterator.lease();
+        }
+        return iterator;
+    }
+
+    @Override
+    public boolean isEmpty(World world) {
+        return this.reset || isFinished(getCurrentIterator(world));
+    }
+
+    private ResetableIterator<IAutomationBlockInfo> getCurrentIterator(World world) {
+        if(currentIterator == null || isFinished(currentIterator)){
             this.currentIterator = switch (getAreaType()) {
                 case FARMING -> new FarmAreaIterator(this.getServerArea(), world);
                 case QUARRY -> new MineAreaIterator(this.getServerArea(), world);
                 case LOGGING -> new LoggingAreaIterator(this.getServerArea(), world);
             };
         }
-
         return currentIterator;
     }
 
+    private static boolean isFinished(ResetableIterator<IAutomationBlockInfo> iterator) {
+        // the mine iterator is shared, it's not finished until the other miners release their leases
+        if(iterator instanceof MineAreaIterator mineIterator) {
+            return mineIterator.isFinished();
+        }
+        return !iterator.hasNext();
+    }
+
     @Override
     public void sendFinishMessage(Consumer<String> messageConsumer) {
         if(getAreaType() == ProfessionsSelectionType.QUARRY) {
@@ -68,17 +89,22 @@ public final class ServerAutomationAreaInfo extends AutomationAreaInfo implement
         }
     }
 
-    public void refresh(World world) {
+    /**
+     * @return true if the blocks of the area have changed
+     */
+    public boolean refresh(World world) {
         final var area = this.getClientArea();
-        super.area = getRefreshedArea(world, area);
-    }
+        if (area.isEmpty()) return false;
+        if (surfaceArea == null) {
+            final var heightmapType = super.getAreaType() == ProfessionsSelectionType.QUARRY ?
+                    Heightmap.Type.WORLD_SURFACE : Heightmap.Type.MOTION_BLOCKING;
+            surfaceArea = new AreasUtils.SurfaceArea(area, heightmapType);
+        }
+        if (!surfaceArea.update(world)) return false;
 
-    private List<BlockPos> getRefreshedArea(World world, List<BlockPos> area) {
-        if (area.isEmpty()) return area;
-        final var first = area.get(0);
-        final var flatBlocks = area.stream().map(it -> it.withY(first.getY())).collect(Collectors.toSet());
-        return AreasUtils.buildAnAreaOnSurfaceWithinBlocks(flatBlocks, world,
-                super.getAreaType() == ProfessionsSelectionType.QUARRY ? Heightmap.Type.WORLD_SURFACE : Heightmap.Type.MOTION_BLOCKING);
+        final var refreshedArea = surfaceArea.getArea();
+        super.area = refreshedArea;
+        return refreshedArea.size() != area.size() || !new HashSet<>(area).containsAll(refreshedArea);
     }
 
     public List<BlockPos> getServerArea() {
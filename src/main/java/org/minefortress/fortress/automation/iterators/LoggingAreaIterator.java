@@ -1,8 +1,12 @@
 package org.minefortress.fortress.automation.iterators;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.block.BlockState;
 import net.minecraft.registry.tag.BlockTags;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.Heightmap;
 import net.minecraft.world.World;
 import net.remmintan.mods.minefortress.core.automation.AutomationBlockInfo;
@@ -11,12 +15,22 @@ import net.remmintan.mods.minefortress.core.interfaces.automation.area.Automatio
 
 import java.util.*;
 
+/**
+ * The logs, saplings and leaves around the sapling candidates are remembered per column, so the neighbouring
+ * candidates don't scan the same volume again. The area has several blocks in every column, only the first one
+ * is checked.
+ */
 public class LoggingAreaIterator extends AbstractFilteredIterator {
 
+    private static final int SAPLINGS_DISTANCE = 3;
+    private static final int SAPLINGS_HEIGHT = 5;
+    private static final long COLUMNS_CACHE_TICKS = 100L;
+
     private final World world;
 
     private final Map<BlockPos, AutomationBlockInfo> cache = new HashMap<>();
-    private final Set<BlockPos> existingSaplings = new HashSet<>();
+    private final LongOpenHashSet visitedColumns = new LongOpenHashSet();
+    private final Long2ObjectOpenHashMap<TreesColumn> treesColumns = new Long2ObjectOpenHashMap<>();
 
     public LoggingAreaIterator(List<BlockPos> blocks, World world) {
         super(blocks.listIterator());
@@ -25,6 +39,8 @@ public class LoggingAreaIterator extends AbstractFilteredIterator {
 
     @Override
     protected boolean filter(BlockPos pos) {
+        if(!visitedColumns.add(ChunkPos.toLong(pos.getX(), pos.getZ()))) return false;
+
         final var topY = world.getTopY(Heightmap.Type.MOTION_BLOCKING_NO_LEAVES, pos.getX(), pos.getZ());
         final var newPos = new BlockPos(pos.getX(), topY, pos.getZ());
 
@@ -35,7 +51,7 @@ public class LoggingAreaIterator extends AbstractFilteredIterator {
         }
 
         if(noOtherTreesOrSaplingsAround(newPos) && world.getBlockState(newPos.down()).isIn(BlockTags.DIRT)) {
-            existingSaplings.add(newPos);
+            getTreesColumn(newPos.getX(), newPos.getZ()).addPlannedSapling(newPos.getY());
             cache.put(pos, new AutomationBlockInfo(newPos, AutomationActionType.PLANT_SAPLING));
             return true;
         }
@@ -74,21 +90,92 @@ public class LoggingAreaIterator extends AbstractFilteredIterator {
         final var state = world.getBlockState(pos);
         if(!state.isAir() && !state.isIn(BlockTags.REPLACEABLE)) return false;
 
-        final var start = pos.add(-3, -5, -3);
-        final var end = pos.add(3, 5, 3);
-
-        for (BlockPos blockPos : BlockPos.iterate(start, end)) {
-            final var blockState = world.getBlockState(blockPos);
-            if (
-                    blockState.isIn(BlockTags.LOGS) ||
-                    blockState.isIn(BlockTags.SAPLINGS) ||
-                    blockState.isIn(BlockTags.LEAVES) ||
-                    existingSaplings.contains(blockPos)
-            ) {
-                return false;
+        final var fromY = pos.getY() - SAPLINGS_HEIGHT;
+        final var toY = pos.getY() + SAPLINGS_HEIGHT;
+        for (int x = pos.getX() - SAPLINGS_DISTANCE; x <= pos.getX() + SAPLINGS_DISTANCE; x++) {
+            for (int z = pos.getZ() - SAPLINGS_DISTANCE; z <= pos.getZ() + SAPLINGS_DISTANCE; z++) {
+                if (getTreesColumn(x, z).hasTreeBlocks(fromY, toY)) return false;
             }
         }
 
         return true;
     }
+
+    private TreesColumn getTreesColumn(int x, int z) {
+        final var key = ChunkPos.toLong(x, z);
+        var column = treesColumns.get(key);
+        if (column == null) {
+            column = new TreesColumn(x, z);
+            treesColumns.put(key, column);
+        }
+        return column;
+    }
+
+    private static boolean anyInRange(IntArrayList heights, int fromY, int toY) {
+        for (int i = 0; i < heights.size(); i++) {
+            final var y = heights.getInt(i);
+            if (fromY <= y && y <= toY) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The heights of the logs, saplings and leaves in one column. The scanned part of the column is extended on
+     * demand and is scanned again after a while, because the trees grow and get chopped.
+     */
+    private final class TreesColumn {
+
+        private final int x;
+        private final int z;
+        private final IntArrayList treeBlocks = new IntArrayList();
+        private final IntArrayList plannedSaplings = new IntArrayList();
+        private int minY = 0;
+        private int maxY = -1;
+        private long scannedAt;
+
+        private TreesColumn(int x, int z) {
+            this.x = x;
+            this.z = z;
+        }
+
+        boolean hasTreeBlocks(int fromY, int toY) {
+            final var time = world.getTime();
+            if (minY > maxY || time - scannedAt >= COLUMNS_CACHE_TICKS) {
+                treeBlocks.clear();
+                scan(fromY, toY);
+                minY = fromY;
+                maxY = toY;
+                scannedAt = time;
+            } else {
+                if (fromY < minY) {
+                    scan(fromY, minY - 1);
+                    minY = fromY;
+                }
+                if (toY > maxY) {
+                    scan(maxY + 1, toY);
+                    maxY = toY;
+                }
+            }
+            return anyInRange(treeBlocks, fromY, toY) || anyInRange(plannedSaplings, fromY, toY);
+        }
+
+        void addPlannedSapling(int y) {
+            plannedSaplings.add(y);
+        }
+
+        private void scan(int fromY, int toY) {
+            final var cursor = new BlockPos.Mutable();
+            for (int y = fromY; y <= toY; y++) {
+                final var blockState = world.getBlockState(cursor.set(x, y, z));
+                if (
+                        blockState.isIn(BlockTags.LOGS) ||
+                        blockState.isIn(BlockTags.SAPLINGS) ||
+                        blockState.isIn(BlockTags.LEAVES)
+                ) {
+                    treeBlocks.add(y);
+                }
+            }
+        }
+
+    }
 }
@@ -1,28 +1,117 @@
 package org.minefortress.fortress.automation.iterators;
 
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 import net.remmintan.mods.minefortress.blocks.FortressBlocks;
 import net.remmintan.mods.minefortress.building.BuildingHelper;
 import net.remmintan.mods.minefortress.core.automation.AutomationBlockInfo;
-import net.remmintan.mods.minefortress.core.automation.iterators.AbstractFilteredIterator;
+import net.remmintan.mods.minefortress.core.automation.iterators.ResetableIterator;
 import net.remmintan.mods.minefortress.core.interfaces.automation.area.AutomationActionType;
+import net.remmintan.mods.minefortress.core.interfaces.automation.area.IAutomationBlockInfo;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
-public class MineAreaIterator extends AbstractFilteredIterator {
+/**
+ * Shared by all the miners working in the same area. Every miner takes a {@link Lease}, which claims the disjoint
+ * ranges of the area blocks one by one, so the miners don't compete for the same blocks and each one keeps digging
+ * the blocks next to each other. The unfinished ranges of the released leases are given to the next leases.
+ * The area is finished only when all the blocks are leased and all the leases are released, until then the iterator
+ * must not be replaced, otherwise the new one would lease the blocks the miners are still working on.
+ * <p>
+ * The fluid states are remembered for a short time, so the neighbouring blocks don't check the same positions again.
+ * The handed out blocks are forgotten, because the fluid can flow in after they are mined.
+ */
+public class MineAreaIterator implements ResetableIterator<IAutomationBlockInfo> {
 
+    private static final int LEASE_SIZE = 16;
+    private static final long FLUID_CACHE_TICKS = 100L;
+    private static final Direction[] CHECKED_DIRECTIONS = {
+            Direction.UP, Direction.NORTH, Direction.SOUTH, Direction.EAST, Direction.WEST
+    };
+
+    private final List<BlockPos> blocks;
     private final World world;
+    private final Deque<int[]> releasedRanges = new ArrayDeque<>();
+    // the time of the check shifted left by one, the lowest bit is set if there is no fluid
+    private final Long2LongOpenHashMap fluidChecks = new Long2LongOpenHashMap();
+
+    private int cursor = 0;
+    private int openLeases = 0;
+    private boolean reset = false;
 
     public MineAreaIterator(List<BlockPos> blocks, World world) {
-        super(blocks.listIterator());
+        this.blocks = blocks;
         this.world = world;
     }
 
+    public Lease lease() {
+        return new Lease();
+    }
+
+    /**
+     * @return true if there is nothing to lease and no miner holds a lease
+     */
+    public boolean isFinished() {
+        return openLeases == 0 && !hasNext();
+    }
+
+    /**
+     * Checks the blocks which are not leased yet, doesn't claim anything.
+     */
     @Override
-    protected boolean filter(BlockPos pos) {
+    public boolean hasNext() {
+        if (reset) return false;
+        for (int[] range : releasedRanges) {
+            for (int i = range[0]; i < range[1]; i++) {
+                if (filter(blocks.get(i))) return true;
+            }
+        }
+        while (cursor < blocks.size()) {
+            if (filter(blocks.get(cursor))) return true;
+            cursor++;
+        }
+        return false;
+    }
+
+    @Override
+    public IAutomationBlockInfo next() {
+        final var lease = lease();
+        try {
+            return lease.next();
+        } finally {
+            lease.release();
+        }
+    }
+
+    @Override
+    public void reset() {
+        this.reset = true;
+        this.releasedRanges.clear();
+        this.fluidChecks.clear();
+    }
+
+    private boolean claimRange(int[] range) {
+        if (!releasedRanges.isEmpty()) {
+            final var released = releasedRanges.pop();
+            range[0] = released[0];
+            range[1] = released[1];
+            return true;
+        }
+        if (cursor >= blocks.size()) return false;
+        range[0] = cursor;
+        range[1] = Math.min(cursor + LEASE_SIZE, blocks.size());
+        cursor = range[1];
+        return true;
+    }
+
+    private boolean filter(BlockPos pos) {
         return BuildingHelper.canRemoveBlock(world, pos) &&
-                notFluid(pos) &&
                 noFluidAround(pos) &&
                 notSkaffoldBlock(pos);
     }
@@ -31,21 +120,69 @@ public class MineAreaIterator extends AbstractFilteredIterator {
         return !world.getBlockState(pos).isOf(FortressBlocks.SCAFFOLD_OAK_PLANKS);
     }
 
-    @Override
-    protected AutomationBlockInfo map(BlockPos pos) {
-        return new AutomationBlockInfo(pos, AutomationActionType.MINE);
+    private boolean noFluidAround(BlockPos pos) {
+        final var packedPos = pos.asLong();
+        if (!isFluidEmpty(packedPos)) return false;
+        for (Direction direction : CHECKED_DIRECTIONS) {
+            if (!isFluidEmpty(BlockPos.offset(packedPos, direction))) return false;
+        }
+        return true;
     }
 
-    private boolean notFluid(BlockPos pos) {
-        return world.getFluidState(pos).isEmpty();
+    private boolean isFluidEmpty(long packedPos) {
+        final var time = world.getTime();
+        if (fluidChecks.containsKey(packedPos)) {
+            final var check = fluidChecks.get(packedPos);
+            if (time - (check >> 1) < FLUID_CACHE_TICKS)
+                return (check & 1L) == 1L;
+        }
+        final var empty = world.getFluidState(BlockPos.fromLong(packedPos)).isEmpty();
+        fluidChecks.put(packedPos, time << 1 | (empty ? 1L : 0L));
+        return empty;
     }
 
-    private boolean noFluidAround(BlockPos pos) {
-        return world.getFluidState(pos.up()).isEmpty()
-                && world.getFluidState(pos.north()).isEmpty()
-                && world.getFluidState(pos.south()).isEmpty()
-                && world.getFluidState(pos.east()).isEmpty()
-                && world.getFluidState(pos.west()).isEmpty();
+    public final class Lease implements Iterator<IAutomationBlockInfo> {
+
+        private final int[] range = {0, 0};
+        private boolean released = false;
+
+        private Lease() {
+            openLeases++;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (reset || released) return false;
+            do {
+                while (range[0] < range[1]) {
+                    if (filter(blocks.get(range[0]))) return true;
+                    range[0]++;
+                }
+            } while (claimRange(range));
+            // nothing left to claim, the miner doesn't need the lease anymore
+            release();
+            return false;
+        }
+
+        @Override
+        public IAutomationBlockInfo next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            final var pos = blocks.get(range[0]++);
+            fluidChecks.remove(pos.asLong());
+            return new AutomationBlockInfo(pos, AutomationActionType.MINE);
+        }
+
+        /**
+         * Gives the rest of the claimed range back, so the other miners can take it.
+         */
+        public void release() {
+            if (released) return;
+            released = true;
+            openLeases--;
+            if (!reset && range[0] < range[1])
+                releasedRanges.push(new int[]{range[0], range[1]});
+        }
+
     }
 
 }
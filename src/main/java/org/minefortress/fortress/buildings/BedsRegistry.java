@@ -0,0 +1,55 @@
+package org.minefortress.fortress.buildings;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the beds of all the fortress buildings, so the free bed can be found without scanning the buildings.
+ * The search continues from the last found bed, so the pawns looking for a bed at the same time don't check
+ * the same occupied beds again and again.
+ */
+final class BedsRegistry {
+
+    private final Map<BlockPos, List<BlockPos>> bedsByBuilding = new HashMap<>();
+    private final List<BlockPos> beds = new ArrayList<>();
+    private int cursor = 0;
+
+    void register(BlockPos buildingPos, List<BlockPos> buildingBeds) {
+        unregister(buildingPos);
+        final var immutableBeds = buildingBeds.stream().map(BlockPos::toImmutable).toList();
+        bedsByBuilding.put(buildingPos.toImmutable(), immutableBeds);
+        beds.addAll(immutableBeds);
+    }
+
+    void unregister(BlockPos buildingPos) {
+        final var removedBeds = bedsByBuilding.remove(buildingPos);
+        if (removedBeds == null || removedBeds.isEmpty()) return;
+        beds.removeAll(new HashSet<>(removedBeds));
+    }
+
+    boolean contains(BlockPos buildingPos) {
+        return bedsByBuilding.containsKey(buildingPos);
+    }
+
+    void clear() {
+        bedsByBuilding.clear();
+        beds.clear();
+        cursor = 0;
+    }
+
+    Optional<BlockPos> findFreeBed(Predicate<BlockPos> isFree) {
+        final var bedsCount = beds.size();
+        for (int i = 0; i < bedsCount; i++) {
+            final var index = (cursor + i) % bedsCount;
+            final var bed = beds.get(index);
+            if (isFree.test(bed)) {
+                cursor = index + 1;
+                return Optional.of(bed);
+            }
+        }
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,176 @@
+package org.minefortress.fortress.buildings;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Spatial index over the buildings bounding boxes. The world is split into chunk sized columns, every building is
+ * registered in the columns its box overlaps (for the containment queries) and in the column of its center
+ * (for the nearest building queries).
+ */
+final class BuildingsIndex {
+
+    private static final int CELL_SHIFT = 4;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private final Map<BlockPos, BlockBox> boxes = new HashMap<>();
+    private final Long2ObjectOpenHashMap<List<BlockPos>> overlappedCells = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<List<BlockPos>> centerCells = new Long2ObjectOpenHashMap<>();
+
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellZ = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellZ = Integer.MIN_VALUE;
+
+    void put(BlockPos buildingPos, BlockPos start, BlockPos end) {
+        final var pos = buildingPos.toImmutable();
+        remove(pos);
+
+        final var box = BlockBox.create(start, end);
+        boxes.put(pos, box);
+        forEachOverlappedCell(box, cell -> addToCell(overlappedCells, cell, pos));
+
+        final var center = box.getCenter();
+        final var centerCellX = center.getX() >> CELL_SHIFT;
+        final var centerCellZ = center.getZ() >> CELL_SHIFT;
+        addToCell(centerCells, ChunkPos.toLong(centerCellX, centerCellZ), pos);
+
+        minCellX = Math.min(minCellX, centerCellX);
+        minCellZ = Math.min(minCellZ, centerCellZ);
+        maxCellX = Math.max(maxCellX, centerCellX);
+        maxCellZ = Math.max(maxCellZ, centerCellZ);
+    }
+
+    void remove(BlockPos buildingPos) {
+        final var box = boxes.remove(buildingPos);
+        if (box == null) return;
+
+        forEachOverlappedCell(box, cell -> removeFromCell(overlappedCells, cell, buildingPos));
+        final var center = box.getCenter();
+        removeFromCell(centerCells, ChunkPos.toLong(center.getX() >> CELL_SHIFT, center.getZ() >> CELL_SHIFT), buildingPos);
+    }
+
+    void clear() {
+        boxes.clear();
+        overlappedCells.clear();
+        centerCells.clear();
+        minCellX = Integer.MAX_VALUE;
+        minCellZ = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        maxCellZ = Integer.MIN_VALUE;
+    }
+
+    boolean contains(BlockPos buildingPos) {
+        return boxes.containsKey(buildingPos);
+    }
+
+    @Nullable
+    BlockBox getBox(BlockPos buildingPos) {
+        return boxes.get(buildingPos);
+    }
+
+    /**
+     * @return true if the position is inside any building box, the box is expanded by one block up and down
+     */
+    boolean isPartOfAnyBuilding(BlockPos pos) {
+        final var buildings = overlappedCells.get(ChunkPos.toLong(pos.getX() >> CELL_SHIFT, pos.getZ() >> CELL_SHIFT));
+        if (buildings == null) return false;
+        for (BlockPos buildingPos : buildings) {
+            final var box = boxes.get(buildingPos);
+            if (box.getMinY() - 1 <= pos.getY() && pos.getY() <= box.getMaxY() + 1
+                    && box.getMinX() <= pos.getX() && pos.getX() <= box.getMaxX()
+                    && box.getMinZ() <= pos.getZ() && pos.getZ() <= box.getMaxZ())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the building with the nearest center, visiting the columns in rings around the position until no closer
+     * building can be found.
+     *
+     * @param filter is checked only for the buildings closer than the current best candidate
+     */
+    Optional<BlockPos> findNearest(BlockPos pos, Predicate<BlockPos> filter) {
+        if (boxes.isEmpty()) return Optional.empty();
+
+        final var cellX = pos.getX() >> CELL_SHIFT;
+        final var cellZ = pos.getZ() >> CELL_SHIFT;
+        final var firstRing = Math.max(
+                Math.max(minCellX - cellX, cellX - maxCellX),
+                Math.max(Math.max(minCellZ - cellZ, cellZ - maxCellZ), 0)
+        );
+        final var lastRing = Math.max(
+                Math.max(Math.abs(cellX - minCellX), Math.abs(cellX - maxCellX)),
+                Math.max(Math.abs(cellZ - minCellZ), Math.abs(cellZ - maxCellZ))
+        );
+
+        BlockPos nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int ring = firstRing; ring <= lastRing; ring++) {
+            final double minRingDistance = Math.max(ring - 1, 0) * (double) CELL_SIZE;
+            if (nearest != null && nearestDistance <= minRingDistance * minRingDistance) break;
+
+            final var fromX = Math.max(cellX - ring, minCellX);
+            final var toX = Math.min(cellX + ring, maxCellX);
+            final var fromZ = Math.max(cellZ - ring, minCellZ);
+            final var toZ = Math.min(cellZ + ring, maxCellZ);
+            for (int x = fromX; x <= toX; x++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    if (Math.abs(x - cellX) != ring && Math.abs(z - cellZ) != ring) {
+                        // only the border of the ring, skip to the other side
+                        z = cellZ + ring - 1;
+                        continue;
+                    }
+                    final var buildings = centerCells.get(ChunkPos.toLong(x, z));
+                    if (buildings == null) continue;
+                    for (BlockPos buildingPos : buildings) {
+                        final var distance = boxes.get(buildingPos).getCenter().getSquaredDistance(pos);
+                        if (distance < nearestDistance && filter.test(buildingPos)) {
+                            nearest = buildingPos;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+
+        return Optional.ofNullable(nearest);
+    }
+
+    private static void forEachOverlappedCell(BlockBox box, CellConsumer consumer) {
+        for (int x = box.getMinX() >> CELL_SHIFT; x <= box.getMaxX() >> CELL_SHIFT; x++) {
+            for (int z = box.getMinZ() >> CELL_SHIFT; z <= box.getMaxZ() >> CELL_SHIFT; z++) {
+                consumer.accept(ChunkPos.toLong(x, z));
+            }
+        }
+    }
+
+    private static void addToCell(Long2ObjectOpenHashMap<List<BlockPos>> cells, long cell, BlockPos buildingPos) {
+        var buildings = cells.get(cell);
+        if (buildings == null) {
+            buildings = new ArrayList<>();
+            cells.put(cell, buildings);
+        }
+        buildings.add(buildingPos);
+    }
+
+    private static void removeFromCell(Long2ObjectOpenHashMap<List<BlockPos>> cells, long cell, BlockPos buildingPos) {
+        final var buildings = cells.get(cell);
+        if (buildings == null) return;
+        buildings.remove(buildingPos);
+        if (buildings.isEmpty()) cells.remove(cell);
+    }
+
+    @FunctionalInterface
+    private interface CellConsumer {
+        void accept(long cell);
+    }
+
+}
@@ -3,9 +3,11 @@ package org.minefortress.fortress.buildings;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import net.minecraft.block.BedBlock;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.mob.HostileEntity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.tag.BlockTags;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
@@ -19,6 +21,7 @@ import net.remmintan.mods.minefortress.core.interfaces.automation.area.IAutomati
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.ProfessionType;
 import net.remmintan.mods.minefortress.core.interfaces.buildings.IFortressBuilding;
 import net.remmintan.mods.minefortress.core.interfaces.buildings.IServerBuildingsManager;
+import net.remmintan.mods.minefortress.core.interfaces.professions.IServerProfessionsManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager;
 import net.remmintan.mods.minefortress.core.utils.ServerModUtils;
 import net.remmintan.mods.minefortress.networking.helpers.FortressChannelNames;
@@ -35,7 +38,10 @@ import java.util.stream.Stream;
 public class FortressBuildingManager implements IAutomationAreaProvider, IServerBuildingsManager {
 
     private int buildingPointer = 0;
+    private int missingInIndex = 0;
     private final List<BlockPos> buildings = new ArrayList<>();
+    private final BuildingsIndex buildingsIndex = new BuildingsIndex();
+    private final BedsRegistry bedsRegistry = new BedsRegistry();
     private final ServerWorld world;
     private final BlockPos fortressPos;
     private final Cache<BlockPos, Object> bedsCache =
@@ -66,34 +72,41 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
         final var blockEntity = world.getBlockEntity(buildingPos);
         if (blockEntity instanceof FortressBuildingBlockEntity b) {
             b.init(fortressPos, metadata, start, end, blockData);
+            bedsRegistry.register(buildingPos, b.getBedPositions());
         }
 
         getFortressManager().expandTheVillage(start);
         getFortressManager().expandTheVillage(end);
 
         buildings.add(buildingPos);
+        buildingsIndex.put(buildingPos, start, end);
         this.scheduleSync();
+        getProfessionsManager().scheduleProfessionsAssignment();
     }
 
     @Override
     public void destroyBuilding(BlockPos pos) {
         if (buildings.remove(pos))
             this.scheduleSync();
+        buildingsIndex.remove(pos);
+        bedsRegistry.unregister(pos);
         getBuilding(pos).ifPresent(IFortressBuilding::destroy);
+        getProfessionsManager().scheduleProfessionsAssignment();
     }
 
     public Optional<BlockPos> getFreeBed(){
-        final var freeBed = getBuildingsStream()
-                .map(it -> it.getFreeBed(getWorld()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(it -> !bedsCache.asMap().containsKey(it))
-                .findFirst();
+        indexMissingBuildings();
+        final var freeBed = bedsRegistry.findFreeBed(it -> !bedsCache.asMap().containsKey(it) && isFreeBed(it));
 
         freeBed.ifPresent(it -> bedsCache.put(it, new Object()));
         return freeBed;
     }
 
+    private boolean isFreeBed(BlockPos pos) {
+        final var blockState = getWorld().getBlockState(pos);
+        return blockState.isIn(BlockTags.BEDS) && !blockState.get(BedBlock.OCCUPIED);
+    }
+
     public long getTotalBedsCount() {
         return getBuildingsStream().mapToLong(it -> it.getMetadata().getCapacity()).reduce(0, Long::sum);
     }
@@ -112,9 +125,14 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
         if(!buildings.isEmpty()) {
             buildingPointer = buildingPointer % buildings.size();
             final var pos = buildings.get(buildingPointer++);
-            if (this.getBuilding(pos).isEmpty()) {
+            final var building = this.getBuilding(pos);
+            if (building.isEmpty()) {
                 buildings.remove(pos);
+                buildingsIndex.remove(pos);
+                bedsRegistry.unregister(pos);
                 this.scheduleSync();
+            } else if (!isIndexed(pos)) {
+                indexBuilding(building.get());
             }
         }
     }
@@ -157,7 +175,8 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
 
     @Override
     public boolean isPartOfAnyBuilding(BlockPos pos) {
-        return getBuildingsStream().anyMatch(it -> it.isPartOfTheBuilding(pos));
+        indexMissingBuildings();
+        return buildingsIndex.isPartOfAnyBuilding(pos);
     }
 
     @Override
@@ -171,11 +190,10 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
                 it -> true :
                 it -> it.satisfiesRequirement(type, 0);
 
-        return getBuildingsStream()
-                .filter(buildingsFilter)
-                .sorted(Comparator.comparing(it -> it.getCenter().getSquaredDistance(pos)))
-                .filter(it -> it.getHealth() > 0)
-                .findFirst();
+        indexMissingBuildings();
+        return buildingsIndex
+                .findNearest(pos, it -> getBuilding(it).filter(buildingsFilter).filter(b -> b.getHealth() > 0).isPresent())
+                .flatMap(this::getBuilding);
     }
 
     @NotNull
@@ -217,11 +235,48 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
         return Optional.of(attackersList.get(random.nextInt(attackersList.size())));
     }
 
+    private void indexBuilding(IFortressBuilding building) {
+        final var pos = building.getPos();
+        final var start = building.getStart();
+        final var end = building.getEnd();
+        if (start != null && end != null && !buildingsIndex.contains(pos))
+            buildingsIndex.put(pos, start, end);
+        if (!bedsRegistry.contains(pos))
+            bedsRegistry.register(pos, building.getBedPositions());
+    }
+
+    private boolean isIndexed(BlockPos pos) {
+        return buildingsIndex.contains(pos) && bedsRegistry.contains(pos);
+    }
+
+    /**
+     * The beds (and the boxes of the buildings from the old saves) are not known until the block entities are loaded.
+     */
+    private void indexMissingBuildings() {
+        if (missingInIndex == 0) return;
+        var missing = 0;
+        for (BlockPos pos : buildings) {
+            if (isIndexed(pos)) continue;
+            getBuilding(pos).ifPresent(this::indexBuilding);
+            if (!isIndexed(pos)) missing++;
+        }
+        missingInIndex = missing;
+    }
+
     private NbtCompound toNbt() {
         final var buildingsPositions = this.buildings.stream().map(BlockPos::asLong).toList();
+        final var buildingsBoxes = new ArrayList<Long>();
+        for (BlockPos pos : this.buildings) {
+            final var box = buildingsIndex.getBox(pos);
+            if (box == null) continue;
+            buildingsBoxes.add(pos.asLong());
+            buildingsBoxes.add(BlockPos.asLong(box.getMinX(), box.getMinY(), box.getMinZ()));
+            buildingsBoxes.add(BlockPos.asLong(box.getMaxX(), box.getMaxY(), box.getMaxZ()));
+        }
 
         final NbtCompound buildingsTag = new NbtCompound();
         buildingsTag.putLongArray("buildingPositions", buildingsPositions);
+        buildingsTag.putLongArray("buildingBoxes", buildingsBoxes);
         buildingsTag.putInt("buildingPointer", buildingPointer);
         return buildingsTag;
     }
@@ -232,10 +287,21 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
                 .mapToObj(BlockPos::fromLong)
                 .forEach(buildings::add);
         buildingPointer = buildingsTag.getInt("buildingPointer");
+
+        final var buildingsBoxes = buildingsTag.getLongArray("buildingBoxes");
+        for (int i = 0; i + 2 < buildingsBoxes.length; i += 3) {
+            final var pos = BlockPos.fromLong(buildingsBoxes[i]);
+            if (buildings.contains(pos))
+                buildingsIndex.put(pos, BlockPos.fromLong(buildingsBoxes[i + 1]), BlockPos.fromLong(buildingsBoxes[i + 2]));
+        }
+        missingInIndex = buildings.size();
     }
 
     private void reset() {
         buildings.clear();
+        buildingsIndex.clear();
+        bedsRegistry.clear();
+        missingInIndex = 0;
         bedsCache.invalidateAll();
         buildingPointer = 0;
         this.scheduleSync();
@@ -249,4 +315,8 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
         return ServerModUtils.getFortressManager(world.getServer(), fortressPos).orElseThrow();
     }
 
+    private IServerProfessionsManager getProfessionsManager() {
+        return ServerModUtils.getManagersProvider(world.getServer(), fortressPos).orElseThrow().getProfessionsManager();
+    }
+
 }
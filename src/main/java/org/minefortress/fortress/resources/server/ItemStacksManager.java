@@ -1,41 +1,110 @@
 package org.minefortress.fortress.resources.server;
 
+import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.entity.effect.StatusEffectCategory;
+import net.minecraft.entity.effect.StatusEffectInstance;
 import net.minecraft.item.Item;
 import net.remmintan.mods.minefortress.core.dtos.ItemInfo;
 import net.remmintan.mods.minefortress.core.utils.SimilarItemsHelper;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * The stacks are keyed by the raw item id. The stacks view is live and read-only, so the callers can go through
+ * the stored items without copying them. The food stacks are additionally kept ordered by the nutrition, the stacks
+ * are never removed, so the order is kept when their amounts change.
+ */
 class ItemStacksManager {
 
-    private final Map<Item, EasyItemStack> stacks = new HashMap<>();
+    private final Int2ObjectOpenHashMap<EasyItemStack> stacks = new Int2ObjectOpenHashMap<>();
+    private final Collection<EasyItemStack> stacksView = Collections.unmodifiableCollection(stacks.values());
+    private final List<EasyItemStack> foodStacks = new ArrayList<>();
 
     public void clear() {
         stacks.clear();
+        foodStacks.clear();
     }
 
     public EasyItemStack getStack(Item item) {
-        return stacks.computeIfAbsent(item, EasyItemStack::new);
+        final var rawId = Item.getRawId(item);
+        var stack = stacks.get(rawId);
+        if (stack == null) {
+            stack = new EasyItemStack(item);
+            stacks.put(rawId, stack);
+            if (isEatable(item))
+                addFoodStack(stack);
+        }
+        return stack;
+    }
+
+    /**
+     * Unlike {@link #getStack(Item)} doesn't create the stack for the missing item.
+     */
+    public int getAmount(Item item) {
+        final var stack = stacks.get(Item.getRawId(item));
+        return stack == null ? 0 : stack.getAmount();
+    }
+
+    public Collection<EasyItemStack> getStacks() {
+        return stacksView;
+    }
+
+    /**
+     * @return the most nutritious food without harmful effects which is available
+     */
+    public Optional<Item> findMostNutritiousFood() {
+        for (EasyItemStack stack : foodStacks) {
+            if (stack.getAmount() > 0)
+                return Optional.of(stack.getItem());
+        }
+        return Optional.empty();
     }
 
     public List<EasyItemStack> getNonEmptySimilarStacks(Item item) {
-        return SimilarItemsHelper.getSimilarItems(item)
-                .stream()
-                .filter(stacks::containsKey)
-                .map(stacks::get)
-                .filter(it -> it.getAmount() > 0)
-                .toList();
+        final var similarStacks = new ArrayList<EasyItemStack>();
+        for (Item similarItem : SimilarItemsHelper.getSimilarItems(item)) {
+            final var stack = stacks.get(Item.getRawId(similarItem));
+            if (stack != null && stack.getAmount() > 0)
+                similarStacks.add(stack);
+        }
+        return similarStacks;
     }
 
     public List<ItemInfo> getAll() {
         return stacks
-                .entrySet()
+                .values()
                 .stream()
-                .map(e -> new ItemInfo(e.getKey(), e.getValue().getAmount()))
+                .map(it -> new ItemInfo(it.getItem(), it.getAmount()))
                 .collect(Collectors.toList());
     }
 
+    private void addFoodStack(EasyItemStack stack) {
+        final var nutrition = getNutrition(stack.getItem());
+        var index = 0;
+        while (index < foodStacks.size() && getNutrition(foodStacks.get(index).getItem()) >= nutrition)
+            index++;
+        foodStacks.add(index, stack);
+    }
+
+    private static float getNutrition(Item item) {
+        final var foodComponent = item.getFoodComponent();
+        //noinspection DataFlowIssue
+        return foodComponent.getHunger() * foodComponent.getSaturationModifier() * 2.0f;
+    }
+
+    private static boolean isEatable(Item item) {
+        final var foodComponent = item.getFoodComponent();
+        if (foodComponent == null)
+            return false;
+
+        for (Pair<StatusEffectInstance, Float> statusEffect : foodComponent.getStatusEffects()) {
+            if (statusEffect.getFirst().getEffectType().getCategory() == StatusEffectCategory.HARMFUL)
+                return false;
+        }
+
+        return true;
+    }
+
 }
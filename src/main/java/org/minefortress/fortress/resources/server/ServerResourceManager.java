@@ -24,6 +24,7 @@ import org.jetbrains.annotations.Nullable;
 import org.minefortress.fortress.resources.client.FortressItemStack;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class ServerResourceManager implements IServerResourceManager, ITickableManager, IWritableManager {
 
@@ -173,10 +174,28 @@ public class ServerResourceManager implements IServerResourceManager, ITickableM
         this.reservedResources.remove(taskId);
     }
 
+    @Override
+    public Set<UUID> getReservedTaskIds() {
+        return new HashSet<>(reservedResources.keySet());
+    }
+
     @Override
     public void write(NbtCompound tag) {
+        tag.put("resources", writeStacks(resources));
+
+        final var reservedTags = new NbtList();
+        reservedResources.forEach((taskId, manager) -> {
+            final var reservedTag = new NbtCompound();
+            reservedTag.putUuid("taskId", taskId);
+            reservedTag.put("resources", writeStacks(manager));
+            reservedTags.add(reservedTag);
+        });
+        tag.put("reservedResources", reservedTags);
+    }
+
+    private static NbtList writeStacks(ItemStacksManager manager) {
         final var stacks = new NbtList();
-        for(ItemInfo info : resources.getAll()) {
+        for(ItemInfo info : manager.getAll()) {
             final var item = info.item();
             final var amount = info.amount();
 
@@ -187,27 +206,40 @@ public class ServerResourceManager implements IServerResourceManager, ITickableM
 
             stacks.add(stack);
         }
-
-        tag.put("resources", stacks);
+        return stacks;
     }
 
     @Override
     public void read(NbtCompound tag) {
         if(tag.contains("resources")) {
             this.resources.clear();
-            final var resourcesTags = tag.getList("resources", NbtList.COMPOUND_TYPE);
-            final var size = resourcesTags.size();
-            for(int i = 0; i < size; i++) {
-                final var resourceTag = resourcesTags.getCompound(i);
-                final var id = resourceTag.getInt("id");
-                final var amount = resourceTag.getInt("amount");
-                final var item = Item.byRawId(id);
-
-                this.resources.getStack(item).increaseBy(amount);
+            readStacks(tag.getList("resources", NbtList.COMPOUND_TYPE), this.resources);
+        }
+
+        // the reserved items are kept for the tasks restored by the task manager
+        if(tag.contains("reservedResources")) {
+            this.reservedResources.clear();
+            final var reservedTags = tag.getList("reservedResources", NbtList.COMPOUND_TYPE);
+            for(int i = 0; i < reservedTags.size(); i++) {
+                final var reservedTag = reservedTags.getCompound(i);
+                final var manager = getManagerFromTaskId(reservedTag.getUuid("taskId"));
+                readStacks(reservedTag.getList("resources", NbtList.COMPOUND_TYPE), manager);
             }
         }
     }
 
+    private static void readStacks(NbtList stacks, ItemStacksManager manager) {
+        final var size = stacks.size();
+        for(int i = 0; i < size; i++) {
+            final var resourceTag = stacks.getCompound(i);
+            final var id = resourceTag.getInt("id");
+            final var amount = resourceTag.getInt("amount");
+            final var item = Item.byRawId(id);
+
+            manager.getStack(item).increaseBy(amount);
+        }
+    }
+
     @Override
     public void tick(@NotNull MinecraftServer server, @NotNull ServerWorld world, @Nullable ServerPlayerEntity player) {
         synchronizer.sync(player);
@@ -215,10 +247,31 @@ public class ServerResourceManager implements IServerResourceManager, ITickableM
 
     @Override
     public List<ItemStack> getAllItems() {
-        return resources.getAll().stream()
-                .filter(info -> info.amount() > 0)
-                .map(it -> (ItemStack)new FortressItemStack(it.item(), it.amount()))
-                .toList();
+        final var allItems = new ArrayList<ItemStack>();
+        for (EasyItemStack stack : resources.getStacks()) {
+            if (stack.getAmount() > 0)
+                allItems.add(new FortressItemStack(stack.getItem(), stack.getAmount()));
+        }
+        return Collections.unmodifiableList(allItems);
+    }
+
+    @Override
+    public int getItemAmount(Item item) {
+        return resources.getAmount(item);
+    }
+
+    @Override
+    public Optional<Item> findItem(Predicate<Item> predicate) {
+        for (EasyItemStack stack : resources.getStacks()) {
+            if (stack.getAmount() > 0 && predicate.test(stack.getItem()))
+                return Optional.of(stack.getItem());
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Item> findMostNutritiousFood() {
+        return resources.findMostNutritiousFood();
     }
 
     @Override
@@ -228,20 +281,20 @@ public class ServerResourceManager implements IServerResourceManager, ITickableM
             final var item = info.item();
             if(item == Items.FLINT_AND_STEEL || item == Items.WATER_BUCKET || item == Items.LAVA_BUCKET) continue;
             final var amount = info.amount();
-            final var stack = resources.getStack(item);
-            if(!stack.hasEnough(amount)) {
-                final var sumAmountOfSimilarItems = resources.getNonEmptySimilarStacks(item)
-                        .stream()
-                        .map(EasyItemStack::getAmount)
-                        .reduce(0, Integer::sum);
-
-                final var similarItemsSet = new HashSet<>(SimilarItemsHelper.getSimilarItems(item));
-                final var requiredSimilarItems = infos.stream()
-                        .filter(it -> similarItemsSet.contains(it.item()))
-                        .mapToInt(ItemInfo::amount)
-                        .sum();
-
-                if(sumAmountOfSimilarItems - requiredSimilarItems + stack.getAmount() < amount) return false;
+            final var stackAmount = resources.getAmount(item);
+            if(stackAmount < amount) {
+                var sumAmountOfSimilarItems = 0;
+                for (Item similarItem : SimilarItemsHelper.getSimilarItems(item)) {
+                    sumAmountOfSimilarItems += resources.getAmount(similarItem);
+                }
+
+                var requiredSimilarItems = 0;
+                for (ItemInfo other : infos) {
+                    if (SimilarItemsHelper.isSimilar(item, other.item()))
+                        requiredSimilarItems += other.amount();
+                }
+
+                if(sumAmountOfSimilarItems - requiredSimilarItems + stackAmount < amount) return false;
             }
         }
         return true;
@@ -256,30 +309,37 @@ public class ServerResourceManager implements IServerResourceManager, ITickableM
         this.synchronizer.syncAll(resources.getAll());
     }
 
+    /**
+     * Keeps only the latest amount of every changed item, so each item is sent at most once per sync.
+     */
     private static class Synchronizer {
 
-        private final List<ItemInfo> infosToSync = new ArrayList<>();
+        private final Map<Item, Integer> amountsToSync = new LinkedHashMap<>();
         private boolean needReset = false;
 
         void reset() {
-            this.infosToSync.clear();
+            this.amountsToSync.clear();
             this.needReset = true;
         }
 
         void sync(ServerPlayerEntity player) {
-            if(player == null || (infosToSync.isEmpty() && !needReset)) return;
+            if(player == null || (amountsToSync.isEmpty() && !needReset)) return;
+            final var infosToSync = new ArrayList<ItemInfo>(amountsToSync.size());
+            amountsToSync.forEach((item, amount) -> infosToSync.add(new ItemInfo(item, amount)));
             final var packet = new ClientboundSyncItemsPacket(infosToSync, needReset);
             FortressServerNetworkHelper.send(player, FortressChannelNames.FORTRESS_RESOURCES_SYNC, packet);
-            infosToSync.clear();
+            amountsToSync.clear();
             this.needReset = false;
         }
 
         void syncItem(Item item, int amount) {
-            infosToSync.add(new ItemInfo(item, amount));
+            amountsToSync.put(item, amount);
         }
 
         void syncAll(List<ItemInfo> items) {
-            infosToSync.addAll(items);
+            for (ItemInfo info : items) {
+                amountsToSync.put(info.item(), info.amount());
+            }
         }
 
     }
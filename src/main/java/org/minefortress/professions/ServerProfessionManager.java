@@ -25,6 +25,7 @@ import net.remmintan.mods.minefortress.networking.s2c.ClientboundProfessionSyncP
 import net.remmintan.mods.minefortress.networking.s2c.ClientboundProfessionsInitPacket;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.minefortress.entity.Colonist;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
@@ -45,6 +46,7 @@ public final class ServerProfessionManager extends ProfessionManager implements
     private List<ProfessionFullInfo> professionsInfos;
     private String professionsTree;
     private boolean needsUpdate = false;
+    private boolean needsProfessionsAssignment = true;
 
     public ServerProfessionManager(BlockPos fortressPos, ServerWorld world) {
         this.fortressPos = fortressPos;
@@ -65,6 +67,7 @@ public final class ServerProfessionManager extends ProfessionManager implements
             return;
 
         profession.setAmount(profession.getAmount() + 1);
+        scheduleProfessionsAssignment();
         sync();
     }
 
@@ -83,11 +86,17 @@ public final class ServerProfessionManager extends ProfessionManager implements
         if(profession.getAmount() <= 0) return;
 
         profession.setAmount(profession.getAmount() - 1);
+        scheduleProfessionsAssignment();
         sync();
     }
 
     @Override
     public void tick(@NotNull MinecraftServer server, @NotNull ServerWorld world, @Nullable ServerPlayerEntity player) {
+        if(needsProfessionsAssignment) {
+            needsProfessionsAssignment = false;
+            assignProfessionsToReservedPawns();
+        }
+
         if(player == null) return;
         if(needsUpdate) {
             final var essentialInfos = new ArrayList<IProfessionEssentialInfo>();
@@ -109,6 +118,30 @@ public final class ServerProfessionManager extends ProfessionManager implements
                 .ifPresent(IProfessional::reserve);
     }
 
+    @Override
+    public void scheduleProfessionsAssignment() {
+        needsProfessionsAssignment = true;
+    }
+
+    private void assignProfessionsToReservedPawns() {
+        final var fortressManager = getServerFortressManager();
+        while (true) {
+            final var reservedPawn = fortressManager
+                    .getPawnWithProfession(Colonist.RESERVE_PROFESSION_ID)
+                    .filter(Colonist.class::isInstance)
+                    .map(Colonist.class::cast);
+            if (reservedPawn.isEmpty()) return;
+
+            final var professionId = getProfessionsWithAvailablePlaces(true);
+            if (professionId.isEmpty()) return;
+
+            final var colonist = reservedPawn.get();
+            colonist.setProfession(professionId.get());
+            // the profession can't be assigned, don't try the same pawn again
+            if (colonist.isAlive() && Colonist.RESERVE_PROFESSION_ID.equals(colonist.getProfessionId())) return;
+        }
+    }
+
     @Override
     public void sendProfessions(@NotNull ServerPlayerEntity player) {
         initProfessionsIfNeeded();
@@ -157,6 +190,7 @@ public final class ServerProfessionManager extends ProfessionManager implements
                 profession.readNbt(professionTag.getCompound(key));
                 sync();
             }
+            scheduleProfessionsAssignment();
         }
 
     }
@@ -171,7 +205,7 @@ public final class ServerProfessionManager extends ProfessionManager implements
             final IProfession profession = entry.getValue();
 
             if(profession.getAmount() > 0) {
-                final long colonistsWithProfession = countPawnsWithProfession(professionId);
+                final long colonistsWithProfession = getServerFortressManager().countPawnsWithProfession(professionId);
                 if(colonistsWithProfession < profession.getAmount()) {
                     return Optional.of(professionId);
                 }
@@ -185,14 +219,6 @@ public final class ServerProfessionManager extends ProfessionManager implements
         return getServerFortressManager();
     }
 
-    private long countPawnsWithProfession(String professionId) {
-        return getServerFortressManager()
-                .getProfessionals()
-                .stream()
-                .filter(pawn -> pawn.getProfessionId().equals(professionId))
-                .count();
-    }
-
     private IServerFortressManager getServerFortressManager() {
         return ServerModUtils.getFortressManager(server, fortressPos).orElseThrow();
     }
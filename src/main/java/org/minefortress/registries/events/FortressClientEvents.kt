@@ -2,6 +2,7 @@ package org.minefortress.registries.events
 
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents
 import net.fabricmc.fabric.api.event.player.AttackEntityCallback
 import net.fabricmc.fabric.api.event.player.UseEntityCallback
 import net.fabricmc.loader.api.FabricLoader
@@ -15,6 +16,7 @@ import net.remmintan.mods.minefortress.core.interfaces.tasks.ITasksInformationHo
 import net.remmintan.mods.minefortress.core.isClientInFortressGamemode
 import net.remmintan.mods.minefortress.core.isFortressGamemode
 import net.remmintan.mods.minefortress.core.utils.ClientModUtils
+import net.remmintan.mods.minefortress.core.utils.SimilarItemsHelper
 import net.remmintan.mods.minefortress.core.utils.getMineFortressVersion
 import net.remmintan.mods.minefortress.networking.c2s.C2SClientReadyPacket
 import net.remmintan.mods.minefortress.networking.helpers.FortressClientNetworkHelper
@@ -31,7 +33,14 @@ object FortressClientEvents {
         ToastEvents().register()
         InputTracker.initialize()
 
-        ClientPlayConnectionEvents.DISCONNECT.register { _, _ -> ClientModUtils.getFortressManager().reset() }
+        ClientPlayConnectionEvents.DISCONNECT.register { _, _ ->
+            ClientModUtils.getFortressManager().reset()
+            // the next server can have different tags
+            SimilarItemsHelper.clearIndex()
+        }
+        CommonLifecycleEvents.TAGS_LOADED.register { _, client ->
+            if (client) SimilarItemsHelper.buildIndex()
+        }
         ClientTickEvents.START_CLIENT_TICK.register { startClientTick(it) }
         ClientTickEvents.END_CLIENT_TICK.register { endClientTick(it) }
         ClientPlayConnectionEvents.JOIN.register { handler, _, client ->
@@ -1,6 +1,7 @@
 package org.minefortress.registries.events;
 
 
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
@@ -9,8 +10,11 @@ import net.remmintan.mods.minefortress.core.interfaces.IFortressModVersionHolder
 import net.remmintan.mods.minefortress.core.interfaces.entities.player.IFortressPlayerEntity;
 import net.remmintan.mods.minefortress.core.interfaces.entities.player.IFortressServerPlayerEntity;
 import net.remmintan.mods.minefortress.core.interfaces.server.IFortressServer;
+import net.remmintan.mods.minefortress.core.services.FortressHolderRegistry;
+import net.remmintan.mods.minefortress.core.services.FortressOwnersRegistry;
 import net.remmintan.mods.minefortress.core.services.PatronStatusService;
 import net.remmintan.mods.minefortress.core.utils.ServerModUtils;
+import net.remmintan.mods.minefortress.core.utils.SimilarItemsHelper;
 import net.remmintan.mods.minefortress.networking.helpers.FortressServerNetworkHelper;
 import net.remmintan.mods.minefortress.networking.s2c.S2CStartFortressConfiguration;
 import net.remmintan.mods.minefortress.networking.s2c.S2CSyncGamemodePacket;
@@ -35,6 +39,7 @@ public class FortressServerEvents {
             }
 
             final var player = handler.player;
+            FortressOwnersRegistry.INSTANCE.register(player);
             syncTheFortressGamemode((IFortressServer) server, player);
 
             if (ServerModUtils.hasFortress(player)) {
@@ -73,6 +78,15 @@ public class FortressServerEvents {
             }
         });
 
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> FortressOwnersRegistry.INSTANCE.unregister(handler.player));
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> SimilarItemsHelper.buildIndex());
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> SimilarItemsHelper.buildIndex());
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            FortressHolderRegistry.INSTANCE.clear();
+            FortressOwnersRegistry.INSTANCE.clear();
+            SimilarItemsHelper.clearIndex();
+        });
+
         PlayerSleepEvents.INSTANCE.register();
         BlueprintWorldEvents.INSTANCE.register();
         PlayerBlockEvents.INSTANCE.register();
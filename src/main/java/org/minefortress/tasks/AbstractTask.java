@@ -3,8 +3,15 @@ package org.minefortress.tasks;
 import com.mojang.datafixers.util.Pair;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
+import net.minecraft.entity.Entity;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.item.Item;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.Registries;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3i;
 import net.remmintan.mods.minefortress.core.TaskType;
@@ -22,7 +29,10 @@ import java.util.*;
 
 public abstract class AbstractTask implements ITask {
 
-    protected static final int PART_SIZE = 3;
+    private static final int MIN_PART_SIZE = 3;
+    private static final int MAX_PART_SIZE = 8;
+    private static final int MAX_PART_VOLUME = 512;
+    private static final int PARTS_PER_WORKER = 4;
 
     // CAUTION: not actually unique
     protected final UUID id;
@@ -31,8 +41,10 @@ public abstract class AbstractTask implements ITask {
     protected BlockPos endingBlock;
 
     protected final Queue<Pair<BlockPos, BlockPos>> parts = new ArrayDeque<>();
+    private final Set<Pair<BlockPos, BlockPos>> partsInProgress = new HashSet<>();
 
     protected int totalParts;
+    private int partSize = MIN_PART_SIZE;
     private int completedParts;
 
     private final List<Runnable> taskFinishListeners = new ArrayList<>();
@@ -64,11 +76,41 @@ public abstract class AbstractTask implements ITask {
 
     @Override
     public void returnPart(Pair<BlockPos, BlockPos> part) {
+        partsInProgress.remove(part);
         parts.add(part);
     }
 
+    /**
+     * Takes the part closest to the worker, so the workers don't cross the whole task area to get to their parts.
+     */
+    protected Pair<BlockPos, BlockPos> takePart(IWorkerPawn worker) {
+        final var part = worker instanceof Entity entity ? pollNearestPart(entity.getBlockPos()) : parts.poll();
+        if (part != null) partsInProgress.add(part);
+        return part;
+    }
+
+    private Pair<BlockPos, BlockPos> pollNearestPart(BlockPos pos) {
+        // the parts are the columns spanning the whole task height, so only the horizontal distance matters
+        final long doubledX = pos.getX() * 2L;
+        final long doubledZ = pos.getZ() * 2L;
+        Pair<BlockPos, BlockPos> nearest = null;
+        long nearestDistance = Long.MAX_VALUE;
+        for (Pair<BlockPos, BlockPos> part : parts) {
+            final long dx = part.getFirst().getX() + (long) part.getSecond().getX() - doubledX;
+            final long dz = part.getFirst().getZ() + (long) part.getSecond().getZ() - doubledZ;
+            final long distance = dx * dx + dz * dz;
+            if (distance < nearestDistance) {
+                nearest = part;
+                nearestDistance = distance;
+            }
+        }
+        if (nearest != null) parts.remove(nearest);
+        return nearest;
+    }
+
     @Override
-    public void prepareTask() {
+    public void prepareTask(int workersCount) {
+        partSize = getPartSize(workersCount);
         BlockPos.Mutable cursor = this.startingBlock.mutableCopy();
         final Vec3i direction = PathUtils.getDirection(startingBlock, endingBlock);
         do {
@@ -81,18 +123,34 @@ public abstract class AbstractTask implements ITask {
                     break;
                 } else {
                     cursor.setX(startingBlock.getX());
-                    cursor.move(0, 0, PART_SIZE * direction.getZ());
+                    cursor.move(0, 0, partSize * direction.getZ());
                 }
             } else {
-                cursor.move(direction.getX() * PART_SIZE, 0, 0);
+                cursor.move(direction.getX() * partSize, 0, 0);
             }
         } while (true);
 
         this.totalParts = parts.size();
     }
 
+    /**
+     * Picks the side of the part columns, so every worker gets a few parts to balance the work, but the large areas
+     * are not cut into thousands of tiny parts. The tall columns are kept narrow to limit the blocks in one part.
+     */
+    private int getPartSize(int workersCount) {
+        final long width = Math.abs(endingBlock.getX() - startingBlock.getX()) + 1L;
+        final long depth = Math.abs(endingBlock.getZ() - startingBlock.getZ()) + 1L;
+        final long height = Math.abs(endingBlock.getY() - startingBlock.getY()) + 1L;
+
+        final long targetPartsCount = (long) Math.max(workersCount, 1) * PARTS_PER_WORKER;
+        final var sizeByArea = (int) Math.sqrt((double) (width * depth) / targetPartsCount);
+        final var sizeByVolume = (int) Math.sqrt((double) MAX_PART_VOLUME / height);
+        return Math.max(MIN_PART_SIZE, Math.min(Math.min(sizeByArea, sizeByVolume), MAX_PART_SIZE));
+    }
+
     @Override
     public void finishPart(ITaskPart part, IWorkerPawn worker) {
+        partsInProgress.remove(part.getStartAndEnd());
         completedParts++;
         if(completedParts > totalParts) {
             throw new IllegalStateException("Completed parts cannot be greater than total parts");
@@ -124,9 +182,7 @@ public abstract class AbstractTask implements ITask {
 
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
-        final var blocks = new ArrayList<BlockPos>();
-        BlockPos.iterate(startingBlock, endingBlock).forEach(it -> blocks.add(it.toImmutable()));
-        return Collections.singletonList(new TaskInformationDto(id, blocks, taskType));
+        return Collections.singletonList(new TaskInformationDto(id, List.of(BlockBox.create(startingBlock, endingBlock)), taskType));
     }
 
     protected void sendFinishTaskNotificationToPlayer(ServerPlayerEntity randomPlayer) {
@@ -141,6 +197,90 @@ public abstract class AbstractTask implements ITask {
         return completedParts;
     }
 
+    /**
+     * Writes the state common for all the area tasks. The parts taken by the workers are saved as not started ones,
+     * because the workers don't keep their tasks across restarts.
+     */
+    protected NbtCompound writeTaskNbt(String type) {
+        final var tag = new NbtCompound();
+        tag.putString("type", type);
+        tag.putUuid("id", id);
+        tag.putString("taskType", taskType.name());
+        tag.putLong("start", startingBlock.asLong());
+        tag.putLong("end", endingBlock.asLong());
+
+        final var remainingParts = new ArrayList<>(partsInProgress);
+        remainingParts.addAll(parts);
+        final var partsArray = new long[remainingParts.size() * 2];
+        for (int i = 0; i < remainingParts.size(); i++) {
+            final var part = remainingParts.get(i);
+            partsArray[i * 2] = part.getFirst().asLong();
+            partsArray[i * 2 + 1] = part.getSecond().asLong();
+        }
+        tag.putLongArray("parts", partsArray);
+        tag.putInt("completedParts", completedParts);
+        return tag;
+    }
+
+    /**
+     * Restores the parts written by {@link #writeTaskNbt(String)}. The task without parts was not started yet and
+     * will be prepared as usual.
+     */
+    protected void readPartsNbt(NbtCompound tag) {
+        parts.clear();
+        partsInProgress.clear();
+        final var partsArray = tag.getLongArray("parts");
+        for (int i = 0; i + 1 < partsArray.length; i += 2) {
+            parts.add(Pair.of(BlockPos.fromLong(partsArray[i]), BlockPos.fromLong(partsArray[i + 1])));
+        }
+        completedParts = tag.getInt("completedParts");
+        totalParts = parts.isEmpty() ? 0 : completedParts + parts.size();
+    }
+
+    protected static NbtCompound writeBlockStates(Map<BlockPos, BlockState> blocks) {
+        final var paletteIndices = new Object2IntOpenHashMap<BlockState>();
+        paletteIndices.defaultReturnValue(-1);
+        final var paletteTag = new NbtList();
+        final var positions = new long[blocks.size()];
+        final var states = new int[blocks.size()];
+
+        var i = 0;
+        for (Map.Entry<BlockPos, BlockState> entry : blocks.entrySet()) {
+            final var state = entry.getValue();
+            var paletteIndex = paletteIndices.getInt(state);
+            if (paletteIndex == -1) {
+                paletteIndex = paletteTag.size();
+                paletteTag.add(NbtHelper.fromBlockState(state));
+                paletteIndices.put(state, paletteIndex);
+            }
+            positions[i] = entry.getKey().asLong();
+            states[i] = paletteIndex;
+            i++;
+        }
+
+        final var tag = new NbtCompound();
+        tag.put("palette", paletteTag);
+        tag.putLongArray("positions", positions);
+        tag.putIntArray("states", states);
+        return tag;
+    }
+
+    protected static Map<BlockPos, BlockState> readBlockStates(NbtCompound tag) {
+        final var paletteTag = tag.getList("palette", NbtList.COMPOUND_TYPE);
+        final var palette = new ArrayList<BlockState>(paletteTag.size());
+        for (int i = 0; i < paletteTag.size(); i++) {
+            palette.add(NbtHelper.toBlockState(Registries.BLOCK.getReadOnlyWrapper(), paletteTag.getCompound(i)));
+        }
+
+        final var positions = tag.getLongArray("positions");
+        final var states = tag.getIntArray("states");
+        final var blocks = new HashMap<BlockPos, BlockState>(Math.max((int) (positions.length / 0.75f) + 1, 16));
+        for (int i = 0; i < positions.length; i++) {
+            blocks.put(BlockPos.fromLong(positions[i]), palette.get(states[i]));
+        }
+        return blocks;
+    }
+
     protected static Item getItemFromState(BlockState state) {
         final Block block = state.getBlock();
         return block.asItem();
@@ -149,7 +289,7 @@ public abstract class AbstractTask implements ITask {
     private BlockPos createPartEnd(BlockPos start, Vec3i direction) {
         BlockPos.Mutable cursor = start.mutableCopy();
         cursor.setY(endingBlock.getY());
-        cursor.move((PART_SIZE-1) * direction.getX(), 0, (PART_SIZE-1)*direction.getZ());
+        cursor.move((partSize-1) * direction.getX(), 0, (partSize-1)*direction.getZ());
         if(cursor.getX() * direction.getX() > endingBlock.getX() * direction.getX()) {
             cursor.setX(endingBlock.getX());
         }
@@ -6,6 +6,7 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.enums.BedPart;
 import net.minecraft.item.Item;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.tag.BlockTags;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
@@ -27,11 +28,17 @@ import java.util.*;
 
 public class BlueprintTask extends AbstractTask {
 
+    static final String NBT_TYPE = "blueprint";
+
     private final BlueprintMetadata blueprintMetadata;
     private final Map<BlockPos, BlockState> blueprintData;
     private final Map<BlockPos, BlockState> blueprintEntityData;
     private final Map<BlockPos, BlockState> blueprintAutomaticData;
 
+    // dense copy of the blueprint data indexed by the position relative to the starting block, built on demand
+    private BlockState[] blueprintStates;
+    private int minX, minY, minZ, sizeX, sizeY, sizeZ;
+
     public BlueprintTask(
             UUID id,
             BlockPos startingPos,
@@ -50,20 +57,19 @@ public class BlueprintTask extends AbstractTask {
 
     @Override
     public ITaskPart getNextPart(IWorkerPawn colonist) {
-        final Pair<BlockPos, BlockPos> partStartAndEnd = parts.poll();
+        final Pair<BlockPos, BlockPos> partStartAndEnd = takePart(colonist);
         List<ITaskBlockInfo> blockInfos = getTaskBlockInfos(partStartAndEnd);
         return new TaskPart(partStartAndEnd, blockInfos, this);
     }
 
     @NotNull
     private List<ITaskBlockInfo> getTaskBlockInfos(Pair<BlockPos, BlockPos> partStartAndEnd) {
-        final BlockPos start = partStartAndEnd.getFirst();
-        final BlockPos delta = start.subtract(startingBlock);
-        final Iterable<BlockPos> allPositionsInPart = BlockPos.iterate(start, partStartAndEnd.getSecond());
+        if (blueprintStates == null) indexBlueprintStates();
+        final Iterable<BlockPos> allPositionsInPart = BlockPos.iterate(partStartAndEnd.getFirst(), partStartAndEnd.getSecond());
 
         List<ITaskBlockInfo> blockInfos = new ArrayList<>();
         for (BlockPos pos : allPositionsInPart) {
-            final BlockState state = blueprintData.getOrDefault(pos.subtract(start).add(delta), pos.subtract(start).add(delta).getY() < blueprintMetadata.getFloorLevel() ? Blocks.DIRT.getDefaultState() : Blocks.AIR.getDefaultState());
+            final BlockState state = getBlueprintState(pos.getX() - startingBlock.getX(), pos.getY() - startingBlock.getY(), pos.getZ() - startingBlock.getZ());
             if(state.isAir()) continue;
             final BlockStateTaskBlockInfo blockStateTaskBlockInfo = new BlockStateTaskBlockInfo(getItemFromState(state), pos.toImmutable(), state);
             blockInfos.add(blockStateTaskBlockInfo);
@@ -71,6 +77,44 @@ public class BlueprintTask extends AbstractTask {
         return blockInfos;
     }
 
+    private BlockState getBlueprintState(int x, int y, int z) {
+        final int ix = x - minX;
+        final int iy = y - minY;
+        final int iz = z - minZ;
+        BlockState state = null;
+        if (ix >= 0 && ix < sizeX && iy >= 0 && iy < sizeY && iz >= 0 && iz < sizeZ)
+            state = blueprintStates[(iy * sizeZ + iz) * sizeX + ix];
+        if (state != null) return state;
+        return y < blueprintMetadata.getFloorLevel() ? Blocks.DIRT.getDefaultState() : Blocks.AIR.getDefaultState();
+    }
+
+    private void indexBlueprintStates() {
+        int maxX = endingBlock.getX() - startingBlock.getX();
+        int maxY = endingBlock.getY() - startingBlock.getY();
+        int maxZ = endingBlock.getZ() - startingBlock.getZ();
+        minX = Math.min(0, maxX);
+        minY = Math.min(0, maxY);
+        minZ = Math.min(0, maxZ);
+        maxX = Math.max(0, maxX);
+        maxY = Math.max(0, maxY);
+        maxZ = Math.max(0, maxZ);
+        for (BlockPos pos : blueprintData.keySet()) {
+            minX = Math.min(minX, pos.getX());
+            minY = Math.min(minY, pos.getY());
+            minZ = Math.min(minZ, pos.getZ());
+            maxX = Math.max(maxX, pos.getX());
+            maxY = Math.max(maxY, pos.getY());
+            maxZ = Math.max(maxZ, pos.getZ());
+        }
+
+        sizeX = maxX - minX + 1;
+        sizeY = maxY - minY + 1;
+        sizeZ = maxZ - minZ + 1;
+        blueprintStates = new BlockState[sizeX * sizeY * sizeZ];
+        blueprintData.forEach((pos, state) ->
+                blueprintStates[((pos.getY() - minY) * sizeZ + pos.getZ() - minZ) * sizeX + pos.getX() - minX] = state);
+    }
+
     @Override
     public void finishPart(ITaskPart part, IWorkerPawn worker) {
         final ServerWorld world = worker.getServerWorld();
@@ -96,7 +140,11 @@ public class BlueprintTask extends AbstractTask {
                     });
             }
 
-            final var mergeBlockData = new HashMap<>(blueprintData);
+            final var mergedSize = blueprintData.size()
+                    + (blueprintEntityData != null ? blueprintEntityData.size() : 0)
+                    + (blueprintAutomaticData != null ? blueprintAutomaticData.size() : 0);
+            final var mergeBlockData = new HashMap<BlockPos, BlockState>((int) (mergedSize / 0.75f) + 1);
+            mergeBlockData.putAll(blueprintData);
             if(blueprintEntityData != null) mergeBlockData.putAll(blueprintEntityData);
             if(blueprintAutomaticData != null) mergeBlockData.putAll(blueprintAutomaticData);
 
@@ -124,12 +172,36 @@ public class BlueprintTask extends AbstractTask {
         }
     }
 
+    @Override
+    public NbtCompound toNbt() {
+        final var tag = writeTaskNbt(NBT_TYPE);
+        tag.put("metadata", blueprintMetadata.toNbt());
+        tag.put("blueprintData", writeBlockStates(blueprintData));
+        if (blueprintEntityData != null) tag.put("blueprintEntityData", writeBlockStates(blueprintEntityData));
+        if (blueprintAutomaticData != null) tag.put("blueprintAutomaticData", writeBlockStates(blueprintAutomaticData));
+        return tag;
+    }
+
+    static BlueprintTask fromNbt(NbtCompound tag) {
+        final var task = new BlueprintTask(
+                tag.getUuid("id"),
+                BlockPos.fromLong(tag.getLong("start")),
+                BlockPos.fromLong(tag.getLong("end")),
+                new BlueprintMetadata(tag.getCompound("metadata")),
+                readBlockStates(tag.getCompound("blueprintData")),
+                tag.contains("blueprintEntityData") ? readBlockStates(tag.getCompound("blueprintEntityData")) : null,
+                tag.contains("blueprintAutomaticData") ? readBlockStates(tag.getCompound("blueprintAutomaticData")) : null
+        );
+        task.readPartsNbt(tag);
+        return task;
+    }
+
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
         Set<BlockPos> allBlocks = new HashSet<>(blueprintData.keySet());
         if(blueprintEntityData != null) allBlocks.addAll(blueprintEntityData.keySet());
         if(blueprintAutomaticData != null) allBlocks.addAll(blueprintAutomaticData.keySet());
         final var positions = allBlocks.stream().map(it -> it.add(startingBlock)).toList();
-        return List.of(new TaskInformationDto(id, positions, taskType));
+        return List.of(TaskInformationDto.fromPositions(id, positions, taskType));
     }
 }
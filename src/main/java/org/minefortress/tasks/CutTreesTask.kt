@@ -2,8 +2,11 @@ package org.minefortress.tasks
 
 import com.mojang.datafixers.util.Pair
 import net.minecraft.entity.LivingEntity
+import net.minecraft.nbt.NbtCompound
+import net.minecraft.server.world.ServerWorld
 import net.minecraft.util.math.BlockPos
 import net.remmintan.gobi.helpers.TreeData
+import net.remmintan.gobi.helpers.TreeFinder
 import net.remmintan.gobi.helpers.TreeRemover
 import net.remmintan.mods.minefortress.core.TaskType
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto
@@ -23,6 +26,7 @@ class CutTreesTask(private val uuid: UUID, private val trees: Map<BlockPos, Tree
     private val totalTreesCount = treeRoots.size
 
     private var removedTrees = 0
+    private val removedRoots = HashSet<BlockPos>()
     private var canceled = false
 
     override fun getId(): UUID {
@@ -62,6 +66,7 @@ class CutTreesTask(private val uuid: UUID, private val trees: Map<BlockPos, Tree
         val managersProvider = ServerModUtils.getManagersProvider(pawn).orElseThrow()
         TreeRemover(pawn.serverWorld, managersProvider.resourceManager, pawn as LivingEntity).removeTheTree(tree)
 
+        removedRoots.add(root)
         removedTrees++
         check(removedTrees <= totalTreesCount) { "Removed more roots than total roots" }
 
@@ -82,6 +87,32 @@ class CutTreesTask(private val uuid: UUID, private val trees: Map<BlockPos, Tree
 
     override fun toTaskInformationDto(): List<TaskInformationDto> {
         val positions = trees.values.flatMap { listOf(it.treeLogBlocks, it.treeLeavesBlocks).flatten() }
-        return listOf(TaskInformationDto(id, positions, TaskType.REMOVE))
+        return listOf(TaskInformationDto.fromPositions(id, positions, TaskType.REMOVE))
+    }
+
+    /**
+     * Only the roots of the trees are saved, the trees themselves are found again when the task is restored.
+     */
+    override fun toNbt(): NbtCompound {
+        return NbtCompound().apply {
+            putString("type", NBT_TYPE)
+            putUuid("id", uuid)
+            putLongArray("roots", trees.keys.filter { it !in removedRoots }.map { it.asLong() })
+        }
+    }
+
+    companion object {
+        const val NBT_TYPE = "cutTrees"
+
+        @JvmStatic
+        fun fromNbt(tag: NbtCompound, world: ServerWorld): CutTreesTask? {
+            val treeFinder = TreeFinder(world)
+            val trees = tag.getLongArray("roots")
+                .map { BlockPos.fromLong(it) }
+                .mapNotNull { root -> treeFinder.findTree(root)?.let { root to it } }
+                .toMap()
+
+            return if (trees.isEmpty()) null else CutTreesTask(tag.getUuid("id"), trees)
+        }
     }
 }
@@ -2,6 +2,7 @@ package org.minefortress.tasks;
 
 import net.minecraft.block.BlockState;
 import net.minecraft.item.Item;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
@@ -17,6 +18,8 @@ import java.util.UUID;
 
 public class RepairBuildingTask extends AbstractTask {
 
+    static final String NBT_TYPE = "repairBuilding";
+
     private final Map<BlockPos, BlockState> blocksToRepair;
 
     public RepairBuildingTask(UUID id, BlockPos startingBlock, BlockPos endingBlock, Map<BlockPos, BlockState> blocksToRepair) {
@@ -26,7 +29,8 @@ public class RepairBuildingTask extends AbstractTask {
 
     @Override
     public ITaskPart getNextPart(IWorkerPawn colonist) {
-        final var part = parts.remove();
+        final var part = takePart(colonist);
+        if (part == null) throw new IllegalStateException("Null part for task!");
         final var taskBlocks = BlockPos.stream(part.getFirst(), part.getSecond())
                 .map(BlockPos::toImmutable)
                 .filter(blocksToRepair::containsKey)
@@ -41,9 +45,35 @@ public class RepairBuildingTask extends AbstractTask {
         return new TaskPart(part, taskBlocks, this);
     }
 
+    /**
+     * The damaged buildings are repaired before starting the new constructions.
+     */
+    @Override
+    public int getPriority() {
+        return 1;
+    }
+
+    @Override
+    public NbtCompound toNbt() {
+        final var tag = writeTaskNbt(NBT_TYPE);
+        tag.put("blocksToRepair", writeBlockStates(blocksToRepair));
+        return tag;
+    }
+
+    static RepairBuildingTask fromNbt(NbtCompound tag) {
+        final var task = new RepairBuildingTask(
+                tag.getUuid("id"),
+                BlockPos.fromLong(tag.getLong("start")),
+                BlockPos.fromLong(tag.getLong("end")),
+                readBlockStates(tag.getCompound("blocksToRepair"))
+        );
+        task.readPartsNbt(tag);
+        return task;
+    }
+
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
-        final var taskInfoDto = new TaskInformationDto(id, blocksToRepair.keySet().stream().toList(), taskType);
+        final var taskInfoDto = TaskInformationDto.fromPositions(id, blocksToRepair.keySet(), taskType);
         return List.of(taskInfoDto);
     }
 }
@@ -2,6 +2,7 @@ package org.minefortress.tasks;
 
 import com.mojang.datafixers.util.Pair;
 import net.minecraft.item.Item;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
@@ -23,6 +24,9 @@ import java.util.stream.Collectors;
 
 public class RoadsTask implements ITask {
 
+    static final String NBT_TYPE = "roads";
+    private static final int PART_SIZE = 11;
+
     private final UUID id;
     private final Item item;
 
@@ -30,6 +34,7 @@ public class RoadsTask implements ITask {
     private final Queue<ITaskPart> taskParts = new ArrayDeque<>();
     private final int totalParts;
     private int finishedParts = 0;
+    private final Set<BlockPos> finishedPartsStarts = new HashSet<>();
 
     private boolean canceled = false;
     private final List<Runnable> taskFinishListeners = new ArrayList<>();
@@ -46,7 +51,7 @@ public class RoadsTask implements ITask {
         int partCounter = 0;
         for (BlockPos block : blocks) {
             partBlocks.add(block);
-            if (partCounter++ > 9) {
+            if (++partCounter >= PART_SIZE) {
                 final ITaskPart taskPart = createTaskPart(partBlocks);
                 taskParts.add(taskPart);
                 partBlocks.clear();
@@ -106,7 +111,7 @@ public class RoadsTask implements ITask {
         if(i != -1){
             final ArrayList<BlockPos> partBlocks = new ArrayList<>();
             for (int j = i; j < blocks.size(); j++) {
-                if(j - i > 10) break;
+                if(j - i >= PART_SIZE) break;
                 partBlocks.add(blocks.get(j));
             }
             final ITaskPart taskPart = createTaskPart(partBlocks);
@@ -117,6 +122,7 @@ public class RoadsTask implements ITask {
     @Override
     public void finishPart(ITaskPart part, IWorkerPawn colonist) {
         final ServerWorld world = colonist.getServerWorld();
+        finishedPartsStarts.add(part.getStartAndEnd().getFirst());
         finishedParts++;
         if(finishedParts > totalParts)
             throw new IllegalStateException("Finished more parts than total parts");
@@ -142,9 +148,34 @@ public class RoadsTask implements ITask {
         taskFinishListeners.add(listener);
     }
 
+    /**
+     * Only the blocks of the not finished parts are saved, the restored task splits them into the same parts again.
+     */
+    @Override
+    public NbtCompound toNbt() {
+        final var remainingBlocks = new ArrayList<BlockPos>();
+        for (int i = 0; i < blocks.size(); i += PART_SIZE) {
+            final var partBlocks = blocks.subList(i, Math.min(i + PART_SIZE, blocks.size()));
+            if (!finishedPartsStarts.contains(partBlocks.get(0))) remainingBlocks.addAll(partBlocks);
+        }
+
+        final var tag = new NbtCompound();
+        tag.putString("type", NBT_TYPE);
+        tag.putUuid("id", id);
+        tag.putLongArray("blocks", remainingBlocks.stream().mapToLong(BlockPos::asLong).toArray());
+        if (item != null) tag.putInt("item", Item.getRawId(item));
+        return tag;
+    }
+
+    static RoadsTask fromNbt(NbtCompound tag) {
+        final var blocks = Arrays.stream(tag.getLongArray("blocks")).mapToObj(BlockPos::fromLong).toList();
+        final var item = tag.contains("item") ? Item.byRawId(tag.getInt("item")) : null;
+        return new RoadsTask(tag.getUuid("id"), blocks, item);
+    }
+
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
-        return List.of(new TaskInformationDto(id, blocks, getTaskType()));
+        return List.of(TaskInformationDto.fromPositions(id, blocks, getTaskType()));
     }
 
     @Override
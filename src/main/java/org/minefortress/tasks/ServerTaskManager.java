@@ -3,18 +3,26 @@ package org.minefortress.tasks;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtList;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+import net.remmintan.mods.minefortress.core.ModLogger;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskFollowUp;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.ITickableManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.IWritableManager;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.IServerTaskManager;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITask;
+import net.remmintan.mods.minefortress.core.utils.ServerExtensionsKt;
 import net.remmintan.mods.minefortress.core.utils.ServerModUtils;
+import net.remmintan.mods.minefortress.core.utils.ServerPlayerEntityExtensionsKt;
+import net.remmintan.mods.minefortress.networking.helpers.FortressChannelNames;
 import net.remmintan.mods.minefortress.networking.helpers.FortressServerNetworkHelper;
+import net.remmintan.mods.minefortress.networking.s2c.ClientboundTaskExecutedPacket;
 import net.remmintan.mods.minefortress.networking.s2c.S2CAddClientTasksPacket;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -22,8 +30,23 @@ import org.jetbrains.annotations.Nullable;
 import java.util.*;
 
 public class ServerTaskManager implements IServerTaskManager, IWritableManager, ITickableManager {
+    private static final int MIN_FREE_WORKERS_TO_START_TASK = 3;
+
+    private final BlockPos fortressPos;
     private final Map<UUID, ITask> nonFinishedTasks = new HashMap<>();
-    private final Queue<ITask> notStartedTasks = new LinkedList<>();
+    private final TasksScheduler notStartedTasks = new TasksScheduler();
+
+    // the follow-ups of the not finished tasks by the task id and the follow-ups ready to start
+    private final Map<UUID, PendingFollowUp> followUps = new HashMap<>();
+    private final List<PendingFollowUp> readyFollowUps = new ArrayList<>();
+
+    private NbtList savedTasks;
+    private NbtList savedFollowUps;
+    private final List<ITask> restoredTasks = new ArrayList<>();
+
+    public ServerTaskManager(BlockPos fortressPos) {
+        this.fortressPos = fortressPos;
+    }
 
     private static @NotNull List<IWorkerPawn> filterWorkers(List<Integer> selectedPawnIds, ServerPlayerEntity player) {
         final var serverWorld = player.getWorld();
@@ -43,32 +66,71 @@ public class ServerTaskManager implements IServerTaskManager, IWritableManager,
         final var packet = new S2CAddClientTasksPacket(task.toTaskInformationDto());
         FortressServerNetworkHelper.send(player, S2CAddClientTasksPacket.CHANNEL, packet);
         nonFinishedTasks.put(task.getId(), task);
+        startTask(task, selectedPawnIds, player);
+    }
+
+    @Override
+    public void addTask(ITask task, TaskFollowUp followUp, List<Integer> selectedPawnIds, ServerPlayerEntity player) {
+        addFollowUp(task, new PendingFollowUp(followUp, selectedPawnIds));
+        addTask(task, selectedPawnIds, player);
+    }
+
+    private void addFollowUp(ITask task, PendingFollowUp followUp) {
+        final var taskId = task.getId();
+        followUps.put(taskId, followUp);
+        task.addFinishListener(() -> {
+            final var finishedFollowUp = followUps.remove(taskId);
+            if (finishedFollowUp != null)
+                readyFollowUps.add(finishedFollowUp);
+        });
+    }
 
+    /**
+     * @return false if the task was put in the queue
+     */
+    private boolean startTask(ITask task, List<Integer> selectedPawnIds, ServerPlayerEntity player) {
         if (selectedPawnIds.isEmpty()) {
             notStartedTasks.add(task);
-            return;
+            return false;
         }
 
         final var selectedWorkers = filterWorkers(selectedPawnIds, player);
         if (selectedWorkers.isEmpty()) {
             player.sendMessage(Text.of("No appropriate workers selected. Put the task in the queue"), false);
             notStartedTasks.add(task);
-            return;
+            return false;
         }
 
-        task.prepareTask();
+        // the restored tasks already have their remaining parts
+        if (!task.hasAvailableParts())
+            task.prepareTask(selectedWorkers.size());
         setPawnsToTask(task, selectedWorkers);
+        return true;
     }
 
     @Override
     public void tick(@NotNull MinecraftServer server, @NotNull ServerWorld world, @Nullable ServerPlayerEntity player) {
+        if (savedTasks != null || savedFollowUps != null) restoreTasks(server, world);
         if (player == null) return;
+        if (!restoredTasks.isEmpty()) {
+            final var tasksInfo = restoredTasks.stream().flatMap(it -> it.toTaskInformationDto().stream()).toList();
+            FortressServerNetworkHelper.send(player, S2CAddClientTasksPacket.CHANNEL, new S2CAddClientTasksPacket(tasksInfo));
+            restoredTasks.clear();
+        }
+        if (!readyFollowUps.isEmpty()) {
+            final var followUpsToStart = new ArrayList<>(readyFollowUps);
+            readyFollowUps.clear();
+            followUpsToStart.forEach(it -> startFollowUp(it, server, player));
+        }
         if (notStartedTasks.isEmpty()) return;
-        final var freeWorkers = ServerModUtils.getFortressManager(player).map(IServerFortressManager::getFreeWorkers).orElse(Collections.emptyList());
-        if (freeWorkers.size() > 2) {
-            final var task = notStartedTasks.remove();
+        final var freeWorkers = new ArrayList<>(ServerModUtils.getFortressManager(player).map(IServerFortressManager::getFreeWorkers).orElse(Collections.emptyList()));
+        // every task is polled at most once per tick, the tasks without the appropriate workers go back to the queue
+        var tasksToStart = notStartedTasks.size();
+        while (tasksToStart-- > 0 && freeWorkers.size() >= MIN_FREE_WORKERS_TO_START_TASK) {
+            final var task = notStartedTasks.poll();
             final var freeWorkersIds = freeWorkers.stream().map(it -> ((Entity) it).getId()).toList();
-            this.addTask(task, freeWorkersIds, player);
+            if (!this.startTask(task, freeWorkersIds, player)) break;
+            freeWorkers.removeIf(it -> it.getTaskControl().hasTask());
         }
     }
 
@@ -78,7 +140,43 @@ public class ServerTaskManager implements IServerTaskManager, IWritableManager,
         final var removedTask = nonFinishedTasks.remove(id);
         if(removedTask != null)
             removedTask.cancel();
-        ServerModUtils.getManagersProvider(player).ifPresent(it -> it.getResourceManager().returnReservedItems(id));
+        final var removedFollowUp = followUps.remove(id);
+        ServerModUtils.getManagersProvider(player).ifPresent(it -> {
+            final var resourceManager = it.getResourceManager();
+            resourceManager.returnReservedItems(id);
+            // the follow-up is never started, so its reservation is not needed anymore
+            if (removedFollowUp != null && removedFollowUp.followUp().getReservedTaskId() != null)
+                resourceManager.returnReservedItems(removedFollowUp.followUp().getReservedTaskId());
+        });
+    }
+
+    private void startFollowUp(PendingFollowUp pendingFollowUp, MinecraftServer server, ServerPlayerEntity player) {
+        final var provider = ServerExtensionsKt.getManagersProvider(server, fortressPos);
+        if (provider == null) return;
+
+        final var followUp = pendingFollowUp.followUp();
+        final var selectedPawns = pendingFollowUp.selectedPawnIds();
+        if (followUp instanceof TaskFollowUp.Blueprint blueprint) {
+            if (blueprint.upgradedBuildingPos() != null)
+                provider.getBuildingsManager().destroyBuilding(blueprint.upgradedBuildingPos());
+            final var blueprintManager = ServerPlayerEntityExtensionsKt.getManagersProvider(player).get_BlueprintManager();
+            final var taskId = UUID.randomUUID();
+            final var task = blueprintManager.createTask(taskId, blueprint.blueprintId(), blueprint.startPos(), blueprint.rotation());
+            if (ServerExtensionsKt.isSurvivalFortress(server)) {
+                final var stacks = blueprintManager.getBlockDataManager().getBlockData(blueprint.blueprintId(), blueprint.rotation()).getStacks();
+                try {
+                    provider.getResourceManager().reserveItems(taskId, stacks);
+                } catch (IllegalStateException e) {
+                    ModLogger.LOGGER.error("Failed to reserve items for task " + taskId + ": " + e.getMessage());
+                    FortressServerNetworkHelper.send(player, FortressChannelNames.FINISH_TASK, new ClientboundTaskExecutedPacket(taskId));
+                    return;
+                }
+            }
+            addTask(task, selectedPawns, player);
+        } else if (followUp instanceof TaskFollowUp.Roads roads) {
+            final var task = provider.getTasksCreator().createRoadsTask(roads.taskId(), roads.blocks(), roads.item());
+            addTask(task, selectedPawns, player);
+        }
     }
 
     private void removeAllFinishedTasks() {
@@ -97,13 +195,120 @@ public class ServerTaskManager implements IServerTaskManager, IWritableManager,
     }
 
 
+    /**
+     * The started tasks are saved before the queued ones, so they are resumed first after the restart.
+     * The follow-ups are saved with their tasks, the follow-ups ready to start are saved separately.
+     */
     @Override
     public void write(NbtCompound tag) {
+        final var tasksTag = new NbtList();
+        for (ITask task : nonFinishedTasks.values()) {
+            if (notStartedTasks.contains(task) || task.taskFullyFinished()) continue;
+            writeTask(task, tasksTag);
+        }
+        notStartedTasks.getTasks().forEach(it -> writeTask(it, tasksTag));
+        if (savedTasks != null)
+            tasksTag.addAll(savedTasks);
+        tag.put("tasks", tasksTag);
+
+        final var followUpsTag = new NbtList();
+        readyFollowUps.forEach(it -> followUpsTag.add(it.followUp().toNbt()));
+        if (savedFollowUps != null)
+            followUpsTag.addAll(savedFollowUps);
+        tag.put("followUps", followUpsTag);
+    }
 
+    private void writeTask(ITask task, NbtList tasksTag) {
+        if (task.isCanceled()) return;
+        final var taskTag = task.toNbt();
+        if (taskTag == null) return;
+        final var followUp = followUps.get(task.getId());
+        if (followUp != null)
+            taskTag.put("followUp", followUp.followUp().toNbt());
+        tasksTag.add(taskTag);
     }
 
+    /**
+     * The tasks are restored on the first tick, because some of them need the world to be restored.
+     */
     @Override
     public void read(NbtCompound tag) {
+        if (tag.contains("tasks"))
+            savedTasks = tag.getList("tasks", NbtList.COMPOUND_TYPE);
+        if (tag.contains("followUps"))
+            savedFollowUps = tag.getList("followUps", NbtList.COMPOUND_TYPE);
+    }
+
+    /**
+     * The items reserved for the tasks which were not restored (e.g. failed to read) are returned, otherwise
+     * nothing would ever use or return them.
+     */
+    private void restoreTasks(MinecraftServer server, ServerWorld world) {
+        final var keptReservations = new HashSet<UUID>();
+        if (savedTasks != null) {
+            for (int i = 0; i < savedTasks.size(); i++) {
+                final var taskTag = savedTasks.getCompound(i);
+                readTask(taskTag, world).ifPresent(task -> {
+                    nonFinishedTasks.put(task.getId(), task);
+                    notStartedTasks.add(task);
+                    restoredTasks.add(task);
+                    keptReservations.add(task.getId());
+                    if (taskTag.contains("followUp"))
+                        readFollowUp(taskTag.getCompound("followUp")).ifPresent(followUp -> {
+                            addFollowUp(task, new PendingFollowUp(followUp, Collections.emptyList()));
+                            keptReservations.add(followUp.getReservedTaskId());
+                        });
+                });
+            }
+            savedTasks = null;
+        }
+        if (savedFollowUps != null) {
+            for (int i = 0; i < savedFollowUps.size(); i++) {
+                readFollowUp(savedFollowUps.getCompound(i)).ifPresent(followUp -> {
+                    readyFollowUps.add(new PendingFollowUp(followUp, Collections.emptyList()));
+                    keptReservations.add(followUp.getReservedTaskId());
+                });
+            }
+            savedFollowUps = null;
+        }
 
+        final var provider = ServerExtensionsKt.getManagersProvider(server, fortressPos);
+        if (provider == null) return;
+        final var resourceManager = provider.getResourceManager();
+        for (UUID reservedTaskId : resourceManager.getReservedTaskIds()) {
+            if (!keptReservations.contains(reservedTaskId))
+                resourceManager.returnReservedItems(reservedTaskId);
+        }
+    }
+
+    private static Optional<TaskFollowUp> readFollowUp(NbtCompound tag) {
+        try {
+            return Optional.ofNullable(TaskFollowUp.fromNbt(tag));
+        } catch (RuntimeException e) {
+            ModLogger.LOGGER.error("Failed to restore task follow-up: " + e.getMessage());
+            return Optional.empty();
+        }
     }
+
+    private static Optional<ITask> readTask(NbtCompound tag, ServerWorld world) {
+        final var type = tag.getString("type");
+        try {
+            return switch (type) {
+                case BlueprintTask.NBT_TYPE -> Optional.of(BlueprintTask.fromNbt(tag));
+                case RepairBuildingTask.NBT_TYPE -> Optional.of(RepairBuildingTask.fromNbt(tag));
+                case SimpleSelectionTask.NBT_TYPE -> Optional.of(SimpleSelectionTask.fromNbt(tag));
+                case RoadsTask.NBT_TYPE -> Optional.of(RoadsTask.fromNbt(tag));
+                case CutTreesTask.NBT_TYPE -> Optional.ofNullable(CutTreesTask.fromNbt(tag, world));
+                default -> {
+                    ModLogger.LOGGER.warn("Unknown saved task type: " + type);
+                    yield Optional.empty();
+                }
+            };
+        } catch (RuntimeException e) {
+            ModLogger.LOGGER.error("Failed to restore task of type " + type + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private record PendingFollowUp(TaskFollowUp followUp, List<Integer> selectedPawnIds) {}
 }
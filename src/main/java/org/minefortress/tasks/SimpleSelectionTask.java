@@ -4,16 +4,20 @@ import com.mojang.datafixers.util.Pair;
 import net.minecraft.block.BlockState;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemUsageContext;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.Vec3d;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
 import net.remmintan.mods.minefortress.core.interfaces.selections.ServerSelectionType;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITaskBlockInfo;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITaskPart;
+import net.remmintan.mods.minefortress.core.utils.BlockBoxUtils;
 import net.remmintan.mods.minefortress.core.utils.PathUtils;
 import org.minefortress.entity.Colonist;
 import org.minefortress.tasks.block.info.BlockStateTaskBlockInfo;
@@ -27,14 +31,16 @@ import java.util.UUID;
 
 public class SimpleSelectionTask extends AbstractTask {
 
+    static final String NBT_TYPE = "selection";
+
     private final HitResult hitResult;
     private final Direction horizontalDirection;
     private final ServerSelectionType selectionType;
 
     private Item placingItem;
-    private final List<BlockPos> positions;
+    private final List<BlockBox> selection;
 
-    public SimpleSelectionTask(UUID id, TaskType taskType, BlockPos startingBlock, BlockPos endingBlock, HitResult hitResult, ServerSelectionType selectionType, List<BlockPos> positions) {
+    public SimpleSelectionTask(UUID id, TaskType taskType, BlockPos startingBlock, BlockPos endingBlock, HitResult hitResult, ServerSelectionType selectionType, List<BlockBox> selection) {
         super(id, taskType, startingBlock, endingBlock);
         this.selectionType = selectionType;
 
@@ -58,7 +64,7 @@ public class SimpleSelectionTask extends AbstractTask {
             this.horizontalDirection = null;
         }
 
-        this.positions = positions;
+        this.selection = selection;
     }
 
     private boolean isShouldSwapEnds(TaskType taskType, BlockPos startingBlock, BlockPos endingBlock, ServerSelectionType selectionType) {
@@ -69,12 +75,12 @@ public class SimpleSelectionTask extends AbstractTask {
     }
 
     @Override
-    public void prepareTask() {
+    public void prepareTask(int workersCount) {
         if(selectionType == ServerSelectionType.WALLS_EVERY_SECOND) {
             parts.add(Pair.of(startingBlock, endingBlock));
             super.totalParts = 1;
         } else {
-            super.prepareTask();
+            super.prepareTask(workersCount);
         }
     }
 
@@ -88,7 +94,7 @@ public class SimpleSelectionTask extends AbstractTask {
 
     @Override
     public ITaskPart getNextPart(IWorkerPawn colonist) {
-        Pair<BlockPos, BlockPos> startAndEnd = parts.poll();
+        Pair<BlockPos, BlockPos> startAndEnd = takePart(colonist);
         if(startAndEnd == null) throw new IllegalStateException("Null part for task!");
         final List<ITaskBlockInfo> blocks = getPartBlocksInfo(startAndEnd, colonist);
         return new TaskPart(startAndEnd, blocks, this);
@@ -125,8 +131,56 @@ public class SimpleSelectionTask extends AbstractTask {
         }
     }
 
+    /**
+     * The start and the end are saved already swapped, the constructor doesn't swap them again.
+     */
+    @Override
+    public NbtCompound toNbt() {
+        final var tag = writeTaskNbt(NBT_TYPE);
+        tag.putString("selectionType", selectionType.name());
+        if (hitResult instanceof BlockHitResult blockHitResult) {
+            final var hitTag = new NbtCompound();
+            final var hitPos = blockHitResult.getPos();
+            hitTag.putDouble("x", hitPos.getX());
+            hitTag.putDouble("y", hitPos.getY());
+            hitTag.putDouble("z", hitPos.getZ());
+            hitTag.putInt("side", blockHitResult.getSide().getId());
+            hitTag.putLong("blockPos", blockHitResult.getBlockPos().asLong());
+            hitTag.putBoolean("insideBlock", blockHitResult.isInsideBlock());
+            tag.put("hitResult", hitTag);
+        }
+        tag.putIntArray("selection", BlockBoxUtils.toIntArray(selection));
+        if (placingItem != null) tag.putInt("placingItem", Item.getRawId(placingItem));
+        return tag;
+    }
+
+    static SimpleSelectionTask fromNbt(NbtCompound tag) {
+        BlockHitResult hitResult = null;
+        if (tag.contains("hitResult")) {
+            final var hitTag = tag.getCompound("hitResult");
+            hitResult = new BlockHitResult(
+                    new Vec3d(hitTag.getDouble("x"), hitTag.getDouble("y"), hitTag.getDouble("z")),
+                    Direction.byId(hitTag.getInt("side")),
+                    BlockPos.fromLong(hitTag.getLong("blockPos")),
+                    hitTag.getBoolean("insideBlock")
+            );
+        }
+        final var task = new SimpleSelectionTask(
+                tag.getUuid("id"),
+                TaskType.valueOf(tag.getString("taskType")),
+                BlockPos.fromLong(tag.getLong("start")),
+                BlockPos.fromLong(tag.getLong("end")),
+                hitResult,
+                ServerSelectionType.valueOf(tag.getString("selectionType")),
+                BlockBoxUtils.fromIntArray(tag.getIntArray("selection"))
+        );
+        if (tag.contains("placingItem")) task.setPlacingItem(Item.byRawId(tag.getInt("placingItem")));
+        task.readPartsNbt(tag);
+        return task;
+    }
+
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
-        return List.of(new TaskInformationDto(id, positions, taskType));
+        return List.of(new TaskInformationDto(id, selection, taskType));
     }
 }
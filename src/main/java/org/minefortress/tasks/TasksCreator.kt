@@ -6,6 +6,7 @@ import net.minecraft.server.network.ServerPlayerEntity
 import net.minecraft.server.world.ServerWorld
 import net.minecraft.util.Hand
 import net.minecraft.util.hit.HitResult
+import net.minecraft.util.math.BlockBox
 import net.minecraft.util.math.BlockPos
 import net.remmintan.gobi.helpers.TreeFinder
 import net.remmintan.mods.minefortress.core.TaskType
@@ -33,10 +34,10 @@ class TasksCreator(private val serverWorld: ServerWorld) : ITasksCreator {
         end: BlockPos,
         selectionType: ServerSelectionType,
         hitResult: HitResult,
-        positions: List<BlockPos>,
+        selection: List<BlockBox>,
         player: ServerPlayerEntity
     ): ITask {
-        val simpleSelectionTask = SimpleSelectionTask(id, taskType, start, end, hitResult, selectionType, positions)
+        val simpleSelectionTask = SimpleSelectionTask(id, taskType, start, end, hitResult, selectionType, selection)
         if (simpleSelectionTask.getTaskType() == TaskType.BUILD) {
             val itemInHand = player.getStackInHand(Hand.MAIN_HAND)
             if (itemInHand !== ItemStack.EMPTY) {
@@ -0,0 +1,61 @@
+package org.minefortress.tasks;
+
+import net.remmintan.mods.minefortress.core.interfaces.tasks.ITask;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Queue of the tasks waiting for the free workers. The tasks with the higher priority are started first,
+ * the tasks with the same priority are started in the order they were scheduled.
+ */
+final class TasksScheduler {
+
+    private static final Comparator<ScheduledTask> ORDER = Comparator
+            .comparingInt(ScheduledTask::priority)
+            .reversed()
+            .thenComparingLong(ScheduledTask::order);
+
+    private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>(ORDER);
+    private long nextOrder = 0;
+
+    void add(ITask task) {
+        queue.add(new ScheduledTask(task, task.getPriority(), nextOrder++));
+    }
+
+    @Nullable
+    ITask poll() {
+        final var scheduledTask = queue.poll();
+        return scheduledTask == null ? null : scheduledTask.task();
+    }
+
+    boolean contains(ITask task) {
+        for (ScheduledTask scheduledTask : queue) {
+            if (scheduledTask.task() == task) return true;
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * @return the scheduled tasks in the order they will be started
+     */
+    List<ITask> getTasks() {
+        final var scheduledTasks = new ArrayList<>(queue);
+        scheduledTasks.sort(ORDER);
+        return scheduledTasks.stream().map(ScheduledTask::task).toList();
+    }
+
+    private record ScheduledTask(ITask task, int priority, long order) {}
+
+}
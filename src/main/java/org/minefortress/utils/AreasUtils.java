@@ -1,31 +1,81 @@
 package org.minefortress.utils;
 
 
-import com.google.common.collect.Streams;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.Heightmap;
 import net.minecraft.world.World;
 
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 
 public class AreasUtils {
 
+    private static final Comparator<BlockPos> SURFACE_ORDER = Comparator.comparingInt(BlockPos::getY)
+            .reversed()
+            .thenComparing(BlockPos::getX)
+            .thenComparing(BlockPos::getZ);
+
     public static List<BlockPos> buildAnAreaOnSurfaceWithinBlocks(Iterable<BlockPos> blocks, World world, Heightmap.Type heightmapType) {
-        return Streams
-                .stream(blocks)
-                .map(BlockPos::toImmutable)
-                .flatMap(it -> {
-                    final var topY = world.getTopY(heightmapType, it.getX(), it.getZ());
-                    return Streams.stream(BlockPos.iterate(it.withY(topY-3), it.withY(topY+3))).map(BlockPos::toImmutable);
-                })
-                .sorted(
-                    Comparator.comparingInt(BlockPos::getY)
-                        .reversed()
-                        .thenComparing(BlockPos::getX)
-                        .thenComparing(BlockPos::getZ)
-                )
-                .toList();
+        final var surfaceArea = new SurfaceArea(blocks, heightmapType);
+        surfaceArea.update(world);
+        return surfaceArea.getArea();
+    }
+
+    /**
+     * The blocks around the surface of the columns. The area depends only on the heights of the columns, so it is
+     * rebuilt only when the heightmap of any column changes, otherwise the update just reads the heightmap.
+     */
+    public static final class SurfaceArea {
+
+        private final long[] columns;
+        private final int[] topYs;
+        private final Heightmap.Type heightmapType;
+        private List<BlockPos> area = Collections.emptyList();
+
+        public SurfaceArea(Iterable<BlockPos> blocks, Heightmap.Type heightmapType) {
+            final var uniqueColumns = new LongLinkedOpenHashSet();
+            for (BlockPos block : blocks) {
+                uniqueColumns.add(BlockPos.asLong(block.getX(), 0, block.getZ()));
+            }
+            this.columns = uniqueColumns.toLongArray();
+            this.topYs = new int[columns.length];
+            Arrays.fill(topYs, Integer.MIN_VALUE);
+            this.heightmapType = heightmapType;
+        }
+
+        /**
+         * @return true if the area was rebuilt
+         */
+        public boolean update(World world) {
+            var changed = false;
+            for (int i = 0; i < columns.length; i++) {
+                final var topY = world.getTopY(heightmapType, BlockPos.unpackLongX(columns[i]), BlockPos.unpackLongZ(columns[i]));
+                if (topY != topYs[i]) {
+                    topYs[i] = topY;
+                    changed = true;
+                }
+            }
+            if (changed) area = build();
+            return changed;
+        }
+
+        public List<BlockPos> getArea() {
+            return area;
+        }
+
+        private List<BlockPos> build() {
+            final var blocks = new ArrayList<BlockPos>(columns.length * 7);
+            for (int i = 0; i < columns.length; i++) {
+                final var x = BlockPos.unpackLongX(columns[i]);
+                final var z = BlockPos.unpackLongZ(columns[i]);
+                for (int y = topYs[i] - 3; y <= topYs[i] + 3; y++) {
+                    blocks.add(new BlockPos(x, y, z));
+                }
+            }
+            blocks.sort(SURFACE_ORDER);
+            return Collections.unmodifiableList(blocks);
+        }
+
     }
 
 }
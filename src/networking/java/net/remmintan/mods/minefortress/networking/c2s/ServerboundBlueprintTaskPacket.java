@@ -6,6 +6,7 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.BlockRotation;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.ModLogger;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskFollowUp;
 import net.remmintan.mods.minefortress.core.interfaces.networking.FortressC2SPacket;
 import net.remmintan.mods.minefortress.core.utils.ServerExtensionsKt;
 import net.remmintan.mods.minefortress.core.utils.ServerPlayerEntityExtensionsKt;
@@ -89,8 +90,8 @@ public class ServerboundBlueprintTaskPacket implements FortressC2SPacket {
         };
         if (floorLevel > 0) {
             final var digTask = blueprintManager.createDigTask(UUID.randomUUID(), startPos, floorLevel, blueprintId, rotation);
-            digTask.addFinishListener(executeBuildTask);
-            provider.getTaskManager().addTask(digTask, selectedPawns, player);
+            final var followUp = new TaskFollowUp.Blueprint(blueprintId, startPos, rotation, upgradedBuildingPos);
+            provider.getTaskManager().addTask(digTask, followUp, selectedPawns, player);
         } else {
             executeBuildTask.run();
         }
@@ -5,6 +5,7 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.Hand;
 import net.minecraft.util.math.BlockPos;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskFollowUp;
 import net.remmintan.mods.minefortress.core.interfaces.networking.FortressC2SPacket;
 import net.remmintan.mods.minefortress.core.utils.ServerExtensionsKt;
 import org.jetbrains.annotations.NotNull;
@@ -65,10 +66,6 @@ public class ServerboundRoadsTaskPacket implements FortressC2SPacket {
             resourceManager.reserveItems(placeUuid, Collections.singletonList(resourceManager.createItemInfo(item, blocks.size())));
 
         final var digTask = tasksCreator.createRoadsTask(digUuid, blocks, null);
-        digTask.addFinishListener(() -> {
-            final var buildTask = tasksCreator.createRoadsTask(placeUuid, blocks, item);
-            taskManager.addTask(buildTask, selectedPawns, player);
-        });
-        taskManager.addTask(digTask, selectedPawns, player);
+        taskManager.addTask(digTask, new TaskFollowUp.Roads(placeUuid, blocks, item), selectedPawns, player);
     }
 }
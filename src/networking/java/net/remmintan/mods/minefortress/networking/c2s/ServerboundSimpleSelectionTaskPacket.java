@@ -1,16 +1,19 @@
 package net.remmintan.mods.minefortress.networking.c2s;
 
+import io.netty.handler.codec.DecoderException;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.Hand;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.ItemInfo;
 import net.remmintan.mods.minefortress.core.interfaces.networking.FortressC2SPacket;
 import net.remmintan.mods.minefortress.core.interfaces.selections.ServerSelectionType;
+import net.remmintan.mods.minefortress.core.utils.BlockBoxUtils;
 import net.remmintan.mods.minefortress.core.utils.ServerExtensionsKt;
 import org.jetbrains.annotations.NotNull;
 
@@ -18,6 +21,9 @@ import java.util.*;
 
 public class ServerboundSimpleSelectionTaskPacket implements FortressC2SPacket {
 
+    private static final int MAX_SELECTION_BOXES = 4096;
+    private static final long MAX_SELECTION_VOLUME = 1 << 20;
+
     private final UUID id;
     private final TaskType taskType;
     private final BlockPos start;
@@ -25,7 +31,7 @@ public class ServerboundSimpleSelectionTaskPacket implements FortressC2SPacket {
     private final HitResult hitResult;
     private final String selectionType;
     private final List<Integer> selectedPawns;
-    private final List<BlockPos> positions;
+    private final List<BlockBox> selection;
     public ServerboundSimpleSelectionTaskPacket(UUID id, TaskType taskType, BlockPos start, BlockPos end, HitResult hitResult, String selectionType, List<BlockPos> positions, List<Integer> selectedPawns) {
         this.id = id;
         this.taskType = taskType;
@@ -33,7 +39,7 @@ public class ServerboundSimpleSelectionTaskPacket implements FortressC2SPacket {
         this.end = end;
         this.hitResult = hitResult;
         this.selectionType = selectionType;
-        this.positions = positions;
+        this.selection = BlockBoxUtils.toBoxes(positions);
         this.selectedPawns = selectedPawns;
     }
 
@@ -50,11 +56,18 @@ public class ServerboundSimpleSelectionTaskPacket implements FortressC2SPacket {
         }
         this.selectionType = buffer.readString();
 
-        this.positions = new ArrayList<>();
-        int selectionSize = buffer.readInt();
-        for (int i = 0; i < selectionSize; i++) {
-            this.positions.add(buffer.readBlockPos());
+        // the task works only between the start and the end, the selection is used to reserve the items,
+        // so the parts outside (e.g. the other walls of the multi corner selection) are not counted
+        final var boxes = BlockBoxUtils.read(buffer, MAX_SELECTION_BOXES);
+        this.selection = BlockBoxUtils.clip(boxes, BlockBox.create(start, end));
+        final long volume;
+        try {
+            volume = BlockBoxUtils.countBlocks(selection);
+        } catch (ArithmeticException e) {
+            throw new DecoderException("Selection volume overflow", e);
         }
+        if (volume > MAX_SELECTION_VOLUME)
+            throw new DecoderException("Selection is too big: " + volume + " blocks, max: " + MAX_SELECTION_VOLUME);
 
         this.selectedPawns = new ArrayList<>();
         int pawnsSize = buffer.readInt();
@@ -76,10 +89,7 @@ public class ServerboundSimpleSelectionTaskPacket implements FortressC2SPacket {
         }
         buffer.writeString(selectionType);
 
-        buffer.writeInt(positions.size());
-        for (BlockPos blockPos : positions) {
-            buffer.writeBlockPos(blockPos);
-        }
+        BlockBoxUtils.write(buffer, selection);
 
         buffer.writeInt(selectedPawns.size());
         for (Integer selectedPawn : selectedPawns) {
@@ -122,10 +132,12 @@ public class ServerboundSimpleSelectionTaskPacket implements FortressC2SPacket {
         final var endingBlock = this.getEnd();
         final var hitResult = this.getHitResult();
         final var selectionType = this.getSelectionType();
-        final var task = tasksCreator.createSelectionTask(id, taskType, startingBlock, endingBlock, selectionType, hitResult, positions, player);
+        final var task = tasksCreator.createSelectionTask(id, taskType, startingBlock, endingBlock, selectionType, hitResult, selection, player);
 
         if (ServerExtensionsKt.isSurvivalFortress(server) && task.getTaskType() == TaskType.BUILD) {
-            final var blocksCount = positions.size();
+            // the volume is capped when the packet is read, so it fits the int
+            final var blocksCount = (int) BlockBoxUtils.countBlocks(selection);
+            if (blocksCount <= 0) return;
             final var placingItem = player.getStackInHand(Hand.MAIN_HAND).getItem();
 
             final var info = new ItemInfo(placingItem, blocksCount);
@@ -2,10 +2,10 @@ package net.remmintan.mods.minefortress.networking.s2c;
 
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.network.PacketByteBuf;
-import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
 import net.remmintan.mods.minefortress.core.interfaces.networking.FortressS2CPacket;
+import net.remmintan.mods.minefortress.core.utils.BlockBoxUtils;
 import net.remmintan.mods.minefortress.core.utils.ClientModUtils;
 
 import java.util.ArrayList;
@@ -26,13 +26,9 @@ public class S2CAddClientTasksPacket implements FortressS2CPacket {
         this.tasks = new ArrayList<>(size);
         for(int i = 0; i < size; i++) {
             final var id = buf.readUuid();
-            final var positions = new ArrayList<BlockPos>();
-            final int positionsSize = buf.readInt();
-            for(int j = 0; j < positionsSize; j++) {
-                positions.add(buf.readBlockPos());
-            }
+            final var boxes = BlockBoxUtils.read(buf);
             final var type = buf.readEnumConstant(TaskType.class);
-            this.tasks.add(new TaskInformationDto(id, positions, type));
+            this.tasks.add(new TaskInformationDto(id, boxes, type));
         }
     }
 
@@ -41,11 +37,7 @@ public class S2CAddClientTasksPacket implements FortressS2CPacket {
         buf.writeVarInt(tasks.size());
         for(TaskInformationDto task: tasks) {
             buf.writeUuid(task.id());
-            final var blockPositions = task.positions();
-            buf.writeInt(blockPositions.size());
-            for(BlockPos pos: blockPositions) {
-                buf.writeBlockPos(pos);
-            }
+            BlockBoxUtils.write(buf, task.boxes());
             buf.writeEnumConstant(task.type());
         }
     }
@@ -12,15 +12,24 @@ import net.remmintan.mods.minefortress.networking.registries.NetworkingReadersRe
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 public class S2CSyncAreasPacket implements FortressS2CPacket {
 
     public static final String CHANNEL = "sync_areas";
 
     private final List<IAutomationAreaInfo> automationAreaInfos;
+    private final List<UUID> removedAreas;
+    private final boolean needReset;
 
-    public S2CSyncAreasPacket(List<IAutomationAreaInfo> automationAreaInfos) {
+    /**
+     * @param automationAreaInfos the added or changed areas, or all the areas if the reset is needed
+     * @param needReset if true the client replaces all its areas with the sent ones
+     */
+    public S2CSyncAreasPacket(List<IAutomationAreaInfo> automationAreaInfos, List<UUID> removedAreas, boolean needReset) {
         this.automationAreaInfos = Collections.unmodifiableList(automationAreaInfos);
+        this.removedAreas = Collections.unmodifiableList(removedAreas);
+        this.needReset = needReset;
     }
 
     public S2CSyncAreasPacket(PacketByteBuf buf) {
@@ -30,6 +39,12 @@ public class S2CSyncAreasPacket implements FortressS2CPacket {
             final INetworkingReader<IAutomationAreaInfo> reader = NetworkingReadersRegistry.findReader(IAutomationAreaInfo.class);
             automationAreaInfos.add(reader.readBuffer(buf));
         }
+        removedAreas = new ArrayList<>();
+        int removedSize = buf.readVarInt();
+        for(int i = 0; i < removedSize; i++) {
+            removedAreas.add(buf.readUuid());
+        }
+        needReset = buf.readBoolean();
     }
 
     @Override
@@ -38,13 +53,22 @@ public class S2CSyncAreasPacket implements FortressS2CPacket {
         for(IAutomationAreaInfo info: automationAreaInfos) {
             info.writeToBuffer(buf);
         }
+        buf.writeVarInt(removedAreas.size());
+        for(UUID id: removedAreas) {
+            buf.writeUuid(id);
+        }
+        buf.writeBoolean(needReset);
     }
 
     @Override
     public void handle(MinecraftClient client) {
         client.execute(() -> {
             final var areasManager = getAutomationAreaManager();
-            areasManager.getSavedAreasHolder().setSavedAreas(automationAreaInfos);
+            final var savedAreasHolder = areasManager.getSavedAreasHolder();
+            if(needReset)
+                savedAreasHolder.setSavedAreas(automationAreaInfos);
+            else
+                savedAreasHolder.updateSavedAreas(automationAreaInfos, removedAreas);
         });
     }
 